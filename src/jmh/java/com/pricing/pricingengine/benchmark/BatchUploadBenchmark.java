@@ -0,0 +1,87 @@
+package com.pricing.pricingengine.benchmark;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.dto.PurgeStatus;
+import com.pricing.pricingengine.service.BatchPurger;
+import com.pricing.pricingengine.service.BatchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persist cost of one {@link BatchService#uploadPrices} chunk per writer, {@code segment} being the segment
+ * store; the rows counter reports rows/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchUploadBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int chunkSize;
+
+    @Param({"jdbc", "jpa", "segment"})
+    String writer;
+
+    private ConfigurableApplicationContext context;
+    private BatchService batchService;
+    private BatchPurger batchPurger;
+    private List<PriceRecord> chunk;
+    private String batchId;
+    private int iteration;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = "segment".equals(writer)
+                ? BenchmarkContext.start("pricing.storage.mode=segment")
+                : BenchmarkContext.start("pricing.ingest.writer=" + writer);
+        batchService = context.getBean(BatchService.class);
+        batchPurger = context.getBean(BatchPurger.class);
+        chunk = BenchmarkContext.records(chunkSize, BenchmarkContext.BASE);
+    }
+
+    @Setup(Level.Iteration)
+    public void startBatch() {
+        batchId = "bench-upload-" + chunkSize + "-" + iteration++;
+        batchService.startBatch(batchId);
+    }
+
+    /**
+     * Cancels and waits for the background purge, so it does not compete with the next iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void cancelBatch() throws InterruptedException {
+        batchService.cancelBatch(batchId);
+        while (!"PURGED".equals(batchPurger.status(batchId).map(PurgeStatus::state).orElse("PURGED"))) {
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public void uploadChunk(RowCounter counter) {
+        batchService.uploadPrices(batchId, chunk);
+        counter.rows += chunkSize;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.pricing.pricingengine.benchmark;
+
+import com.pricing.pricingengine.PricingengineApplication;
+import com.pricing.pricingengine.dto.PriceRecord;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against the embedded H2 for benchmark trials.
+ */
+final class BenchmarkContext {
+
+    static final Instant BASE = Instant.parse("2025-12-15T10:00:00Z");
+
+    private BenchmarkContext() {}
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Boots with the embedded Tomcat on a random port, see {@link #port}.
+     */
+    static ConfigurableApplicationContext startWeb(String... properties) {
+        List<String> withPort = new ArrayList<>(List.of(properties));
+        withPort.add("server.port=0");
+        return start(WebApplicationType.SERVLET, withPort.toArray(String[]::new));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webType, String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.com.pricing.pricingengine=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(PricingengineApplication.class)
+                .web(webType)
+                .profiles("test")
+                .logStartupInfo(false)
+                .run(args.toArray(String[]::new));
+    }
+
+    static String instrument(int i) {
+        return "INST" + i;
+    }
+
+    static List<PriceRecord> records(int count, Instant asOf) {
+        List<PriceRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(new PriceRecord(instrument(i), asOf.plusMillis(i),
+                    "{\"price\":" + (100 + i % 50) + ".25,\"size\":" + (i % 500) + "}"));
+        }
+        return records;
+    }
+}
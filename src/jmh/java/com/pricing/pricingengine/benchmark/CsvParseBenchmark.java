@@ -0,0 +1,76 @@
+package com.pricing.pricingengine.benchmark;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.ingest.PriceCsvReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of {@link PriceCsvReader} against the previous readLine/split/Instant.parse path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParseBenchmark {
+
+    static final int LINES = 1024;
+
+    private byte[] file;
+
+    @Setup
+    public void generateFile() {
+        Instant base = Instant.parse("2025-12-15T10:00:00Z");
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            csv.append("INST").append(i % 64).append(',')
+                    .append(base.plusMillis(i * 137L)).append(',')
+                    .append("{\"price\":").append(100 + i % 50).append(".25,\"size\":").append(i % 500).append("}\n");
+        }
+        file = csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void streamingReader(Blackhole blackhole) throws IOException {
+        try (PriceCsvReader reader = new PriceCsvReader(new ByteArrayInputStream(file))) {
+            PriceRecord record;
+            while ((record = reader.next()) != null) {
+                blackhole.consume(record);
+            }
+        }
+    }
+
+    /**
+     * The parsing path the upload endpoint used before {@link PriceCsvReader}, kept as a baseline.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void readLineSplit(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(file)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",", 3);
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Invalid CSV line: " + line);
+                }
+                blackhole.consume(new PriceRecord(
+                        parts[0].trim(),
+                        Instant.parse(parts[1].trim()),
+                        parts[2].trim()
+                ));
+            }
+        }
+    }
+}
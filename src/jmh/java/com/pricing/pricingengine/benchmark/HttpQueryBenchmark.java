@@ -0,0 +1,102 @@
+package com.pricing.pricingengine.benchmark;
+
+import com.pricing.pricingengine.service.BatchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@value #CLIENTS} concurrent HTTP clients against {@code POST /api/prices/last}, with request handling
+ * on platform threads ({@code virtualThreads=false}) or virtual threads, and Tomcat capped at
+ * {@code maxThreads} request threads in both modes.
+ * <p>
+ * {@code latest} is served from memory; {@code pointInTime} blocks on a JDBC seek per instrument,
+ * which is where platform request threads run out first. Compare throughput and the p99/p999 of
+ * the {@code SampleTime} results between the two modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(HttpQueryBenchmark.CLIENTS)
+public class HttpQueryBenchmark {
+
+    static final int CLIENTS = 64;
+    static final int UNIVERSE = 1000;
+    static final int REQUEST_SIZE = 50;
+
+    @Param({"false", "true"})
+    boolean virtualThreads;
+
+    @Param({"16"})
+    int maxThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI lastPrices;
+    private String latestBody;
+    private String pointInTimeBody;
+
+    @Setup(Level.Trial)
+    public void startServer() {
+        context = BenchmarkContext.startWeb(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.threads.max=" + maxThreads,
+                "server.tomcat.max-connections=" + (CLIENTS * 2));
+        BatchService batchService = context.getBean(BatchService.class);
+        for (int depth = 0; depth < 10; depth++) {
+            String batchId = "bench-http-" + depth;
+            batchService.startBatch(batchId);
+            batchService.uploadPrices(batchId,
+                    BenchmarkContext.records(UNIVERSE, BenchmarkContext.BASE.plusSeconds(depth)));
+            batchService.completeBatch(batchId);
+        }
+
+        StringJoiner ids = new StringJoiner("\",\"", "[\"", "\"]");
+        for (int i = 0; i < REQUEST_SIZE; i++) {
+            ids.add(BenchmarkContext.instrument(i * (UNIVERSE / REQUEST_SIZE)));
+        }
+        latestBody = "{\"instrumentIds\":" + ids + "}";
+        pointInTimeBody = "{\"instrumentIds\":" + ids + ",\"asOf\":\"" + BenchmarkContext.BASE.plusSeconds(5) + "\"}";
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        lastPrices = URI.create("http://localhost:" + BenchmarkContext.port(context) + "/api/prices/last");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int latest() throws IOException, InterruptedException {
+        return post(latestBody);
+    }
+
+    @Benchmark
+    public int pointInTime() throws IOException, InterruptedException {
+        return post(pointInTimeBody);
+    }
+
+    private int post(String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(lastPrices)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,79 @@
+package com.pricing.pricingengine.benchmark;
+
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.service.BatchService;
+import com.pricing.pricingengine.service.PriceQueryService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PriceQueryService#getLastPrices} over a universe of {@value #UNIVERSE} instruments,
+ * by request size and by number of completed batches (history depth) behind each instrument.
+ * The point-in-time variant asks for prices as of the middle of that history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LastPriceQueryBenchmark {
+
+    static final int UNIVERSE = 1000;
+
+    @Param({"1", "100", "1000"})
+    int requestSize;
+
+    @Param({"1", "10", "100"})
+    int historyDepth;
+
+    @Param({"database", "segment"})
+    String storage;
+
+    private ConfigurableApplicationContext context;
+    private PriceQueryService queryService;
+    private Set<String> request;
+    private Instant midHistory;
+
+    @Setup(Level.Trial)
+    public void loadHistory() {
+        context = BenchmarkContext.start("pricing.storage.mode=" + storage);
+        queryService = context.getBean(PriceQueryService.class);
+        BatchService batchService = context.getBean(BatchService.class);
+
+        for (int depth = 0; depth < historyDepth; depth++) {
+            String batchId = "bench-history-" + depth;
+            batchService.startBatch(batchId);
+            batchService.uploadPrices(batchId,
+                    BenchmarkContext.records(UNIVERSE, BenchmarkContext.BASE.plusSeconds(depth)));
+            batchService.completeBatch(batchId);
+        }
+
+        List<String> universe = new ArrayList<>(UNIVERSE);
+        for (int i = 0; i < UNIVERSE; i++) {
+            universe.add(BenchmarkContext.instrument(i));
+        }
+        Collections.shuffle(universe, new Random(42));
+        request = new HashSet<>(universe.subList(0, requestSize));
+        midHistory = BenchmarkContext.BASE.plusSeconds(historyDepth / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<LatestPrice> getLastPrices() {
+        return queryService.getLastPrices(request);
+    }
+
+    @Benchmark
+    public List<LatestPrice> getLastPricesAsOf() {
+        return queryService.getLastPrices(request, midHistory, null);
+    }
+}
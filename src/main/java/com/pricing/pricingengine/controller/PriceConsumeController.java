@@ -1,18 +1,31 @@
 package com.pricing.pricingengine.controller;
 
-import com.pricing.pricingengine.domain.PriceEntity;
+import com.pricing.pricingengine.dto.BarResponse;
 import com.pricing.pricingengine.dto.LastPriceRequest;
 import com.pricing.pricingengine.dto.LastPriceResponse;
-import com.pricing.pricingengine.service.PriceQueryService;
+import com.pricing.pricingengine.dto.PriceChangesResponse;
+import com.pricing.pricingengine.service.BarService;
+import com.pricing.pricingengine.service.LastPriceCache;
+import com.pricing.pricingengine.service.LastPriceStreamer;
+import com.pricing.pricingengine.service.PriceChangeService;
+import com.pricing.pricingengine.service.PriceStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import org.slf4j.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/prices")
@@ -21,41 +34,117 @@ public class PriceConsumeController {
 
     private static final Logger log = LoggerFactory.getLogger(PriceConsumeController.class);
 
-    private final PriceQueryService queryService;
+    static final String NDJSON_VALUE = "application/x-ndjson";
+
+    private final LastPriceCache cache;
+    private final LastPriceStreamer streamer;
+    private final PriceStreamService streamService;
+    private final PriceChangeService changeService;
+    private final BarService barService;
 
-    public PriceConsumeController(PriceQueryService queryService) {
-        this.queryService = queryService;
+    public PriceConsumeController(LastPriceCache cache,
+                                  LastPriceStreamer streamer,
+                                  PriceStreamService streamService,
+                                  PriceChangeService changeService,
+                                  BarService barService) {
+        this.cache = cache;
+        this.streamer = streamer;
+        this.streamService = streamService;
+        this.changeService = changeService;
+        this.barService = barService;
     }
 
     /**
      * Fetches the last price per instrument.
      * Only prices from COMPLETED batches are visible.
+     * With {@code asOf} and/or {@code visibleAt} the answer is the one as of that point in time.
+     * The ETag changes whenever a batch completes; a matching {@code If-None-Match} is answered 304.
      */
     @Operation(
             summary = "FETCHES THE LAST PRICE PER INSTRUMENT"
     )
     @PostMapping("/last")
     public ResponseEntity<List<LastPriceResponse>> getLastPrices(
-            @RequestBody @Valid LastPriceRequest request) {
+            @RequestBody @Valid LastPriceRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        log.debug("Fetching last prices for instruments {}", request.instrumentIds());
+        log.debug("Fetching last prices for instruments {} asOf={} visibleAt={}",
+                request.instrumentIds(), request.asOf(), request.visibleAt());
 
         if (request.instrumentIds() == null || request.instrumentIds().isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
-        List<PriceEntity> prices =
-                queryService.getLastPrices(request.instrumentIds());
+        LastPriceCache.Result result =
+                cache.lookup(request.instrumentIds(), request.asOf(), request.visibleAt(), ifNoneMatch);
 
-        List<LastPriceResponse> response = prices.stream()
-                .map(p -> new LastPriceResponse(
-                        p.getInstrumentId(),
-                        p.getAsOf(),
-                        p.getPayloadJson()
-                ))
-                .collect(Collectors.toList());
+        if (result.notModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(result.etag()).build();
+        }
+        return ResponseEntity.ok().eTag(result.etag()).body(result.prices());
+    }
+
+    /**
+     * Same answer as {@link #getLastPrices}, for {@code Accept: application/x-ndjson}: one price per line,
+     * written while the request is being resolved rather than collected first. Not cached.
+     */
+    @Operation(
+            summary = "FETCHES THE LAST PRICE PER INSTRUMENT AS NEWLINE-DELIMITED JSON, FOR LARGE REQUESTS"
+    )
+    @PostMapping(value = "/last", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLastPrices(@RequestBody @Valid LastPriceRequest request) {
+        log.debug("Streaming last prices for {} instruments asOf={} visibleAt={}",
+                request.instrumentIds().size(), request.asOf(), request.visibleAt());
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(out -> streamer.write(request.instrumentIds(), request.asOf(), request.visibleAt(), out));
+    }
+
+    /**
+     * Streams latest price changes of the given instruments as Server-Sent Events.
+     * The first event ({@code snapshot}) holds the current prices; each following {@code prices}
+     * event holds the prices changed by completed batches since the previous one.
+     */
+    @Operation(
+            summary = "STREAMS LAST PRICE CHANGES PER INSTRUMENT (SERVER-SENT EVENTS)"
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLastPrices(@RequestParam("ids") Set<String> instrumentIds) {
+        log.debug("Opening price stream for instruments {}", instrumentIds);
+        return streamService.subscribe(instrumentIds);
+    }
+
+    /**
+     * Latest prices set by batches completed after completion sequence {@code since}, in sequence order.
+     * Follow {@code nextCursor} until null, then keep {@code nextSince} for the next sync.
+     */
+    @Operation(
+            summary = "LATEST PRICES CHANGED SINCE A COMPLETION SEQUENCE, PAGINATED"
+    )
+    @GetMapping("/changes")
+    public ResponseEntity<PriceChangesResponse> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit) {
+        log.debug("Fetching price changes since={} cursor={} limit={}", since, cursor, limit);
+        return ResponseEntity.ok(changeService.getChanges(since, cursor, limit));
     }
-}
 
+    /**
+     * Open, high, low, close, volume and VWAP per instrument and {@code bucket} over {@code [from, to)},
+     * from the price and size extracted at ingest. Buckets are aligned on {@code from}; empty ones are left out.
+     */
+    @Operation(
+            summary = "TIME-BUCKETED PRICE BARS (OHLC, VOLUME, VWAP) PER INSTRUMENT"
+    )
+    @GetMapping("/bars")
+    public ResponseEntity<List<BarResponse>> getBars(
+            @RequestParam("ids") List<String> instrumentIds,
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(defaultValue = "PT1M") Duration bucket) {
+        log.debug("Fetching bars for instruments {} from={} to={} bucket={}", instrumentIds, from, to, bucket);
+        return ResponseEntity.ok(barService.getBars(instrumentIds, from, to, bucket));
+    }
+}
@@ -1,16 +1,29 @@
 package com.pricing.pricingengine.controller;
 
-import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.dto.BatchChunksResponse;
+import com.pricing.pricingengine.dto.ChunkAck;
+import com.pricing.pricingengine.dto.PurgeStatus;
+import com.pricing.pricingengine.dto.UploadJobStatus;
+import com.pricing.pricingengine.ingest.CountingInputStream;
+import com.pricing.pricingengine.ingest.UploadJob;
+import com.pricing.pricingengine.service.BatchPurger;
 import com.pricing.pricingengine.service.BatchService;
+import com.pricing.pricingengine.service.ChunkUploadService;
+import com.pricing.pricingengine.service.IngestAdmission;
+import com.pricing.pricingengine.service.ShardedUploadService;
+import com.pricing.pricingengine.service.UploadJobService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.*;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
-import java.time.Instant;
+import java.net.URI;
 import java.util.*;
 
 @RestController
@@ -20,20 +33,39 @@ public class PriceUploadController {
 
     private static final Logger log = LoggerFactory.getLogger(PriceUploadController.class);
 
-    private static final int CHUNK_SIZE = 1000;
-
     private final BatchService batchService;
-
-    public PriceUploadController(BatchService batchService) {
+    private final ShardedUploadService shardedUploadService;
+    private final ChunkUploadService chunkUploadService;
+    private final UploadJobService uploadJobService;
+    private final BatchPurger batchPurger;
+    private final IngestAdmission admission;
+    private final Timer fileUploadTimer;
+
+    public PriceUploadController(BatchService batchService,
+                                 ShardedUploadService shardedUploadService,
+                                 ChunkUploadService chunkUploadService,
+                                 UploadJobService uploadJobService,
+                                 BatchPurger batchPurger,
+                                 IngestAdmission admission,
+                                 MeterRegistry registry) {
         this.batchService = batchService;
+        this.shardedUploadService = shardedUploadService;
+        this.chunkUploadService = chunkUploadService;
+        this.uploadJobService = uploadJobService;
+        this.batchPurger = batchPurger;
+        this.admission = admission;
+        this.fileUploadTimer = Timer.builder("pricing.upload.file")
+                .description("Synchronous file upload, parse and persist of every chunk")
+                .register(registry);
     }
 
     /**
-     * Uploads a file of prices into a batch.
-     * The batch must be explicitly completed via a separate call.
+     * Uploads one or more files of prices into a batch; several {@code file} parts are processed in parallel.
+     * Files may be gzip-compressed. The batch must be explicitly completed via a separate call.
+     * Answered 429 with {@code Retry-After} when the producer is over its upload rate or too many writes wait.
      */
     @Operation(
-            summary = "UPLOAD PRICES FILE AND PROCESS IN CHUNKS OF 1000"
+            summary = "UPLOAD PRICES FILES (PLAIN OR GZIP) AND PROCESS THEM IN PARALLEL, IN CHUNKS OF 1000"
     )
     @PostMapping(
             value = "/{batchId}/upload",
@@ -41,40 +73,113 @@ public class PriceUploadController {
     )
     public ResponseEntity<String> uploadPrices(
             @PathVariable String batchId,
-            @RequestParam("file") MultipartFile file
+            @RequestParam("file") List<MultipartFile> files,
+            HttpServletRequest request
     ) throws IOException {
 
-        log.info("Received upload request for batch {} file={}", batchId, file.getOriginalFilename());
+        log.info("Received upload request for batch {} files={}", batchId, fileNames(files));
+        admission.admit(request.getRemoteAddr(), totalSize(files));
+        Timer.Sample sample = Timer.start();
 
-        // Idempotent start (safe if already exists)
-        batchService.startBatch(batchId);
+        // Idempotent start: several producers may upload parts of the same batch
+        batchService.startBatchIfAbsent(batchId);
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream()))) {
+        long rows = shardedUploadService.upload(batchId, files);
 
-            List<PriceRecord> buffer = new ArrayList<>(CHUNK_SIZE);
-            String line;
+        sample.stop(fileUploadTimer);
+        log.info("Upload completed for batch {}: {} rows from {} files", batchId, rows, files.size());
 
-            while ((line = reader.readLine()) != null) {
-                PriceRecord record = parseCsvLine(line);
-                buffer.add(record);
+        return ResponseEntity.accepted()
+                .body("Upload accepted for batch " + batchId + " (" + rows + " rows from " + files.size() +
+                        " files). Call /complete to make data visible.");
+    }
 
-                if (buffer.size() == CHUNK_SIZE) {
-                    batchService.uploadPrices(batchId, buffer);
-                    buffer.clear();
-                }
-            }
+    /**
+     * Spools one or more files of prices, plain or gzip, and processes them in the background as one job.
+     * Returns immediately with a job id; progress is reported by the job endpoint.
+     */
+    @Operation(
+            summary = "UPLOAD PRICES FILE ASYNCHRONOUSLY AND TRACK IT AS A JOB"
+    )
+    @PostMapping(
+            value = "/{batchId}/upload",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            params = "async=true"
+    )
+    public ResponseEntity<UploadJobStatus> uploadPricesAsync(
+            @PathVariable String batchId,
+            @RequestParam("file") List<MultipartFile> files,
+            HttpServletRequest request
+    ) throws IOException {
+
+        log.info("Received async upload request for batch {} files={}", batchId, fileNames(files));
+        admission.admit(request.getRemoteAddr(), totalSize(files));
+
+        batchService.startBatchIfAbsent(batchId);
+
+        UploadJob job = uploadJobService.submit(batchId, files);
+
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/batches/" + batchId + "/jobs/" + job.jobId()))
+                .body(job.status());
+    }
 
-            if (!buffer.isEmpty()) {
-                batchService.uploadPrices(batchId, buffer);
+    /**
+     * Uploads chunk {@code seq} of a resumable upload: the body is CSV, plain or gzip, and
+     * {@code X-Chunk-Checksum} is the CRC32C of the body in hex. A chunk already committed is acknowledged
+     * and skipped.
+     */
+    @Operation(
+            summary = "UPLOAD ONE NUMBERED, CHECKSUMMED CHUNK; RETRIES OF COMMITTED CHUNKS ARE SKIPPED"
+    )
+    @PutMapping(
+            value = "/{batchId}/chunks/{seq}",
+            consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE, "application/gzip"}
+    )
+    public ResponseEntity<ChunkAck> uploadChunk(
+            @PathVariable String batchId,
+            @PathVariable int seq,
+            @RequestHeader("X-Chunk-Checksum") String checksum,
+            InputStream body,
+            HttpServletRequest request
+    ) throws IOException {
+        String producer = request.getRemoteAddr();
+        long length = request.getContentLengthLong();
+        admission.admit(producer, length);
+        // Sent without a length (chunked transfer encoding): charged for what was read instead
+        CountingInputStream counted = new CountingInputStream(body);
+        try {
+            batchService.startBatchIfAbsent(batchId);
+            ChunkAck ack = chunkUploadService.upload(batchId, seq, checksum, counted);
+            return ResponseEntity.ok(ack);
+        } finally {
+            if (length < 0) {
+                admission.charge(producer, counted.count());
             }
         }
+    }
 
-        log.info("Upload completed for batch {}", batchId);
+    /**
+     * Committed chunks of a batch, so a producer can resume after a failure.
+     */
+    @Operation(
+            summary = "COMMITTED CHUNKS OF A BATCH BY BATCHID"
+    )
+    @GetMapping("/{batchId}/chunks")
+    public ResponseEntity<BatchChunksResponse> chunks(@PathVariable String batchId) {
+        return ResponseEntity.ok(chunkUploadService.chunks(batchId));
+    }
 
-        return ResponseEntity.accepted()
-                .body("Upload accepted for batch " + batchId +
-                        ". Call /complete to make data visible.");
+    /**
+     * Progress of an asynchronous upload: rows processed, throughput and failure, if any.
+     */
+    @Operation(
+            summary = "UPLOAD JOB STATUS BY BATCHID AND JOBID"
+    )
+    @GetMapping("/{batchId}/jobs/{jobId}")
+    public ResponseEntity<UploadJobStatus> uploadJobStatus(@PathVariable String batchId,
+                                                           @PathVariable String jobId) {
+        return ResponseEntity.of(uploadJobService.find(batchId, jobId).map(UploadJob::status));
     }
 
     /**
@@ -102,20 +207,24 @@ public class PriceUploadController {
     }
 
     /**
-     * CSV format:
-     * instrumentId,asOfIsoInstant,payloadJson
+     * Progress of the background deletion of a cancelled batch's prices.
      */
-    private PriceRecord parseCsvLine(String line) {
-        String[] parts = line.split(",", 3);
-        if (parts.length != 3) {
-            throw new IllegalArgumentException("Invalid CSV line: " + line);
-        }
+    @Operation(
+            summary = "PURGE PROGRESS OF A CANCELLED BATCH BY BATCHID"
+    )
+    @GetMapping("/{batchId}/purge")
+    public ResponseEntity<PurgeStatus> purgeStatus(@PathVariable String batchId) {
+        return ResponseEntity.of(batchPurger.status(batchId));
+    }
 
-        return new PriceRecord(
-                parts[0].trim(),
-                Instant.parse(parts[1].trim()),
-                parts[2].trim()
-        );
+    /**
+     * Bytes of all file parts; the parts are already spooled, so this holds without a request length.
+     */
+    private static long totalSize(List<MultipartFile> files) {
+        return files.stream().mapToLong(MultipartFile::getSize).sum();
     }
-}
 
+    private static List<String> fileNames(List<MultipartFile> files) {
+        return files.stream().map(MultipartFile::getOriginalFilename).toList();
+    }
+}
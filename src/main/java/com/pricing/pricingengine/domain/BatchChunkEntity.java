@@ -0,0 +1,64 @@
+package com.pricing.pricingengine.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Marks one chunk of a chunked upload as persisted. Inserted in the same transaction as the chunk's price rows,
+ * so a chunk is either fully persisted and marked, or neither.
+ */
+@Entity
+@Getter
+@Table(name = "batch_chunk")
+@IdClass(BatchChunkEntity.Key.class)
+public class BatchChunkEntity {
+
+    @Id
+    @Column(name = "batch_id")
+    private String batchId;
+
+    @Id
+    @Column(name = "seq")
+    private int seq;
+
+    /**
+     * CRC32C of the chunk as sent, in hex.
+     */
+    @Column(nullable = false)
+    private String checksum;
+
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+
+    @Column(nullable = false)
+    private Instant committedAt;
+
+    protected BatchChunkEntity() {}
+
+    public static class Key implements Serializable {
+
+        private String batchId;
+        private int seq;
+
+        protected Key() {}
+
+        public Key(String batchId, int seq) {
+            this.batchId = batchId;
+            this.seq = seq;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && seq == other.seq && Objects.equals(batchId, other.batchId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(batchId, seq);
+        }
+    }
+}
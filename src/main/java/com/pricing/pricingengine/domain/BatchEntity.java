@@ -7,7 +7,12 @@ import java.time.Instant;
 
 @Entity
 @Getter
-@Table(name = "price_batch")
+@Table(
+        name = "price_batch",
+        indexes = {
+                @Index(columnList = "completion_seq", unique = true)
+        }
+)
 public class BatchEntity {
 
     @Id
@@ -25,6 +30,17 @@ public class BatchEntity {
 
     private Instant completedAt;
 
+    /**
+     * Position of the completion in commit order; see {@code CompletionSequence}.
+     */
+    @Column(name = "completion_seq")
+    private Long completionSeq;
+
+    /**
+     * Set once every price row of a cancelled batch has been deleted.
+     */
+    private Instant purgedAt;
+
     protected BatchEntity() {}
 
     public BatchEntity(String id) {
@@ -41,10 +57,24 @@ public class BatchEntity {
         completedAt = Instant.now();
     }
 
+    public void recordCompletionSeq(long completionSeq) {
+        if (status != BatchStatus.COMPLETED) {
+            throw new IllegalStateException("Only completed batches get a completion sequence");
+        }
+        this.completionSeq = completionSeq;
+    }
+
     public void cancel() {
         if (status == BatchStatus.COMPLETED) {
             throw new IllegalStateException("Completed batch cannot be cancelled");
         }
         status = BatchStatus.CANCELLED;
     }
+
+    public void markPurged() {
+        if (status != BatchStatus.CANCELLED) {
+            throw new IllegalStateException("Only cancelled batches can be purged");
+        }
+        purgedAt = Instant.now();
+    }
 }
@@ -0,0 +1,22 @@
+package com.pricing.pricingengine.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+/**
+ * Single-row counter behind batch completion sequence numbers. Only declared so the schema holds the table;
+ * the row is read and bumped with plain SQL.
+ */
+@Entity
+@Getter
+@Table(name = "completion_sequence")
+public class CompletionSequenceEntity {
+
+    @Id
+    private int id;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    protected CompletionSequenceEntity() {}
+}
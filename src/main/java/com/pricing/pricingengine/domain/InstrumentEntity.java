@@ -0,0 +1,26 @@
+package com.pricing.pricingengine.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+/**
+ * Instrument dictionary: maps each external instrument id to the compact integer key stored in
+ * price_record and latest_price. Rows are only ever added.
+ */
+@Entity
+@Getter
+@Table(
+        name = "instrument",
+        uniqueConstraints = @UniqueConstraint(columnNames = "instrumentId")
+)
+public class InstrumentEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false)
+    private String instrumentId;
+
+    protected InstrumentEntity() {}
+}
@@ -0,0 +1,51 @@
+package com.pricing.pricingengine.domain;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Immutable view of the latest completed price of one instrument.
+ * Held in the in-memory snapshot served to consumers.
+ */
+@Getter
+public final class LatestPrice {
+
+    private final String instrumentId;
+    private final Instant asOf;
+    private final Payload payload;
+    private final String batchId;
+
+    public LatestPrice(String instrumentId, Instant asOf, String payloadJson, String batchId) {
+        this(instrumentId, asOf, Payload.of(payloadJson), batchId);
+    }
+
+    public LatestPrice(String instrumentId, Instant asOf, Payload payload, String batchId) {
+        this.instrumentId = instrumentId;
+        this.asOf = asOf;
+        this.payload = payload;
+        this.batchId = batchId;
+    }
+
+    /**
+     * For queries reading a row that holds either a plain payload or a reference into the payload table.
+     */
+    public LatestPrice(String instrumentId, Instant asOf, String payloadJson, Byte payloadEncoding,
+                       byte[] payloadData, String batchId) {
+        this(instrumentId, asOf, Payload.fromColumns(payloadJson, payloadEncoding, payloadData), batchId);
+    }
+
+    /**
+     * Decodes a stored payload on every call; prefer passing {@link #getPayload()} along.
+     */
+    public String getPayloadJson() {
+        return payload.json();
+    }
+
+    /**
+     * A price supersedes another when it is at least as recent.
+     */
+    public boolean supersedes(LatestPrice other) {
+        return other == null || !asOf.isBefore(other.asOf);
+    }
+}
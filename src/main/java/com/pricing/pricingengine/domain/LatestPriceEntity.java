@@ -0,0 +1,43 @@
+package com.pricing.pricingengine.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Materialized latest completed price per instrument.
+ * Maintained set-based by the completing transaction, never written row by row.
+ */
+@Entity
+@Getter
+@Table(
+        name = "latest_price",
+        indexes = {
+                // Serves both the per-batch snapshot merge and the changes feed, which pages by key within a batch
+                @Index(columnList = "batch_id, instrument_key")
+        }
+)
+public class LatestPriceEntity {
+
+    @Id
+    @Column(name = "instrument_key")
+    private int instrumentKey;
+
+    @Column(nullable = false)
+    private Instant asOf;
+
+    /**
+     * Null when the payload is stored in the {@link PayloadEntity payload table}, see {@link #payloadId}.
+     */
+    @Lob
+    private String payloadJson;
+
+    @Column(name = "payload_id")
+    private Long payloadId;
+
+    @Column(name = "batch_id", nullable = false)
+    private String batchId;
+
+    protected LatestPriceEntity() {}
+}
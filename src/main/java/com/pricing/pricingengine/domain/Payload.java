@@ -0,0 +1,125 @@
+package com.pricing.pricingengine.domain;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A price payload, either the JSON text itself or its stored form from the payload table.
+ * <p>
+ * Stored payloads stay encoded in memory, in the snapshot and in cached responses; they are decoded by
+ * {@link #json()}, which Jackson calls only while writing a response.
+ */
+public final class Payload {
+
+    /** UTF-8 bytes as they are. */
+    public static final byte RAW = 0;
+    /** Raw deflate of the UTF-8 bytes. */
+    public static final byte DEFLATE = 1;
+
+    private final String json;
+    private final byte encoding;
+    private final byte[] data;
+
+    private Payload(String json, byte encoding, byte[] data) {
+        this.json = json;
+        this.encoding = encoding;
+        this.data = data;
+    }
+
+    public static Payload of(String json) {
+        return new Payload(json, RAW, null);
+    }
+
+    public static Payload stored(byte encoding, byte[] data) {
+        if (encoding != RAW && encoding != DEFLATE) {
+            throw new IllegalStateException("Unknown payload encoding " + encoding);
+        }
+        return new Payload(null, encoding, data);
+    }
+
+    /**
+     * From a row carrying either a plain payload column or a joined payload table row.
+     */
+    public static Payload fromColumns(String json, Byte encoding, byte[] data) {
+        return json != null ? of(json) : stored(encoding, data);
+    }
+
+    /**
+     * Stored form of {@code utf8}: deflated when longer than {@code inlineLimit} and smaller that way, raw otherwise.
+     */
+    public static Payload encode(byte[] utf8, int inlineLimit) {
+        if (utf8.length > inlineLimit) {
+            byte[] deflated = deflate(utf8);
+            if (deflated.length < utf8.length) {
+                return new Payload(null, DEFLATE, deflated);
+            }
+        }
+        return new Payload(null, RAW, utf8);
+    }
+
+    @JsonValue
+    public String json() {
+        if (json != null) {
+            return json;
+        }
+        return new String(encoding == DEFLATE ? inflate(data) : data, StandardCharsets.UTF_8);
+    }
+
+    public byte encoding() {
+        return encoding;
+    }
+
+    /**
+     * Stored bytes; null for a plain payload.
+     */
+    public byte[] data() {
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return json();
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated payload");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
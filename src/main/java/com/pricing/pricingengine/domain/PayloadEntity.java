@@ -0,0 +1,43 @@
+package com.pricing.pricingengine.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+/**
+ * A distinct price payload, stored once and referenced by id from price_record and latest_price when
+ * {@code pricing.payload.mode=compact}. Rows are only ever added.
+ */
+@Entity
+@Getter
+@Table(
+        name = "payload",
+        indexes = {
+                @Index(columnList = "hash", unique = true)
+        }
+)
+public class PayloadEntity {
+
+    /** Largest stored payload; a VARBINARY rather than a LOB, so it is read inline with its row. */
+    public static final int MAX_DATA_LENGTH = 1_000_000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * SHA-256 of the payload's UTF-8 bytes.
+     */
+    @Column(nullable = false, length = 32)
+    private byte[] hash;
+
+    /**
+     * {@link Payload#RAW} or {@link Payload#DEFLATE}.
+     */
+    @Column(nullable = false)
+    private byte encoding;
+
+    @Column(nullable = false, length = MAX_DATA_LENGTH)
+    private byte[] data;
+
+    protected PayloadEntity() {}
+}
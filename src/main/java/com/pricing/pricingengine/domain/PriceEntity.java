@@ -10,35 +10,77 @@ import java.time.Instant;
 @Table(
         name = "price_record",
         indexes = {
-                @Index(columnList = "instrumentId, asOf")
+                @Index(columnList = "instrument_key, asOf"),
+                @Index(columnList = "batch_id")
         }
 )
 public class PriceEntity {
 
+    /**
+     * Ids are handed out in blocks with the pooled-lo optimizer: a sequence value v reserves [v, v + size).
+     * The JDBC bulk writer allocates from the same sequence with the same semantics.
+     */
+    public static final int ID_ALLOCATION_SIZE = 1000;
+    public static final String ID_SEQUENCE = "price_record_seq";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
-    @Column(nullable = false)
-    private String instrumentId;
+    /**
+     * Key of the instrument in the {@link InstrumentEntity} dictionary.
+     */
+    @Column(name = "instrument_key", nullable = false)
+    private int instrumentKey;
 
     @Column(nullable = false)
     private Instant asOf;
 
+    /**
+     * Null when the payload is stored in the {@link PayloadEntity payload table}, see {@link #payloadId}.
+     */
     @Lob
-    @Column(nullable = false)
     private String payloadJson;
 
+    @Column(name = "payload_id")
+    private Long payloadId;
+
+    /**
+     * Copied from the payload at ingest when {@code pricing.fields.extract} is on; null otherwise or when absent.
+     */
+    @Column(name = "price_value")
+    private Double priceValue;
+
+    @Column(name = "size_value")
+    private Double sizeValue;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "batch_id", nullable = false)
     private BatchEntity batch;
 
     protected PriceEntity() {}
 
-    public PriceEntity(String instrumentId, Instant asOf, String payloadJson, BatchEntity batch) {
-        this.instrumentId = instrumentId;
+    public PriceEntity(int instrumentKey, Instant asOf, String payloadJson, BatchEntity batch) {
+        this.instrumentKey = instrumentKey;
         this.asOf = asOf;
         this.payloadJson = payloadJson;
         this.batch = batch;
     }
+
+    public PriceEntity(int instrumentKey, Instant asOf, long payloadId, BatchEntity batch) {
+        this.instrumentKey = instrumentKey;
+        this.asOf = asOf;
+        this.payloadId = payloadId;
+        this.batch = batch;
+    }
+
+    /**
+     * @param priceValue NaN for none
+     * @param sizeValue  NaN for none
+     */
+    public void setFields(double priceValue, double sizeValue) {
+        this.priceValue = Double.isNaN(priceValue) ? null : priceValue;
+        this.sizeValue = Double.isNaN(sizeValue) ? null : sizeValue;
+    }
 }
@@ -0,0 +1,60 @@
+package com.pricing.pricingengine.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One frame of a batch's segment file, see {@code SegmentPriceStorage}. Inserted in the upload transaction
+ * after the frame is on disk, so only frames of committed uploads are ever read back.
+ */
+@Entity
+@Getter
+@Table(name = "segment_frame")
+@IdClass(SegmentFrameEntity.Key.class)
+public class SegmentFrameEntity {
+
+    @Id
+    @Column(name = "batch_id")
+    private String batchId;
+
+    /**
+     * Byte position of the frame in the segment file.
+     */
+    @Id
+    @Column(name = "frame_offset")
+    private long frameOffset;
+
+    @Column(name = "frame_length", nullable = false)
+    private int frameLength;
+
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+
+    protected SegmentFrameEntity() {}
+
+    public static class Key implements Serializable {
+
+        private String batchId;
+        private long frameOffset;
+
+        protected Key() {}
+
+        public Key(String batchId, long frameOffset) {
+            this.batchId = batchId;
+            this.frameOffset = frameOffset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && frameOffset == other.frameOffset && Objects.equals(batchId, other.batchId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(batchId, frameOffset);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.pricing.pricingengine.dto;
+
+import java.time.Instant;
+
+/**
+ * Aggregate of the prices of one instrument within one bucket.
+ *
+ * @param start  inclusive start of the bucket; it ends where the next one starts
+ * @param volume sum of the sizes; prices without a size count as zero
+ * @param vwap   volume-weighted average price, null when the volume is zero
+ * @param ticks  number of prices in the bucket
+ */
+public record BarResponse(
+        String instrumentId,
+        Instant start,
+        double open,
+        double high,
+        double low,
+        double close,
+        double volume,
+        Double vwap,
+        int ticks
+) {}
@@ -0,0 +1,19 @@
+package com.pricing.pricingengine.dto;
+
+import java.util.List;
+
+/**
+ * Committed chunks of a batch.
+ *
+ * @param firstMissing lowest sequence number not committed yet, where a producer sending in order resumes
+ */
+public record BatchChunksResponse(
+        String batchId,
+        int committedChunks,
+        long committedRows,
+        int firstMissing,
+        List<Chunk> chunks
+) {
+
+    public record Chunk(int seq, String checksum, int rows) {}
+}
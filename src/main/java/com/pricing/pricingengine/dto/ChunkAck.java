@@ -0,0 +1,12 @@
+package com.pricing.pricingengine.dto;
+
+/**
+ * @param alreadyCommitted true when the chunk had been committed before and this upload was skipped
+ */
+public record ChunkAck(
+        String batchId,
+        int seq,
+        String checksum,
+        int rows,
+        boolean alreadyCommitted
+) {}
@@ -1,9 +1,15 @@
 package com.pricing.pricingengine.dto;
 
 import jakarta.validation.constraints.NotEmpty;
+import java.time.Instant;
 import java.util.Set;
 
+/**
+ * @param asOf      optional; latest price with an asOf at or before this time
+ * @param visibleAt optional; only batches completed at or before this time, i.e. what consumers saw then
+ */
 public record LastPriceRequest(
-        @NotEmpty Set<String> instrumentIds
+        @NotEmpty Set<String> instrumentIds,
+        Instant asOf,
+        Instant visibleAt
 ) {}
-
@@ -1,10 +1,20 @@
 package com.pricing.pricingengine.dto;
 
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.domain.Payload;
+
 import java.time.Instant;
 
+/**
+ * @param payloadJson serialized as the JSON string; a stored payload is decoded only then
+ */
 public record LastPriceResponse(
         String instrumentId,
         Instant asOf,
-        String payloadJson
-) {}
+        Payload payloadJson
+) {
 
+    public static LastPriceResponse from(LatestPrice price) {
+        return new LastPriceResponse(price.getInstrumentId(), price.getAsOf(), price.getPayload());
+    }
+}
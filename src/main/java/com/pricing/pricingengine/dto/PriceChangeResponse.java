@@ -0,0 +1,16 @@
+package com.pricing.pricingengine.dto;
+
+import com.pricing.pricingengine.domain.Payload;
+
+import java.time.Instant;
+
+/**
+ * @param payloadJson serialized as the JSON string; a stored payload is decoded only then
+ * @param sequence    completion sequence of the batch the price comes from
+ */
+public record PriceChangeResponse(
+        String instrumentId,
+        Instant asOf,
+        Payload payloadJson,
+        long sequence
+) {}
@@ -0,0 +1,15 @@
+package com.pricing.pricingengine.dto;
+
+import java.util.List;
+
+/**
+ * One page of the changes feed.
+ *
+ * @param nextCursor pass as {@code cursor} to get the next page; null on the last page
+ * @param nextSince  on the last page, the {@code since} to use for the next sync; null while pages remain
+ */
+public record PriceChangesResponse(
+        List<PriceChangeResponse> prices,
+        String nextCursor,
+        Long nextSince
+) {}
@@ -0,0 +1,12 @@
+package com.pricing.pricingengine.dto;
+
+import java.time.Instant;
+
+public record PurgeStatus(
+        String batchId,
+        String state,
+        long rowsDeleted,
+        Instant startedAt,
+        Instant finishedAt,
+        String failure
+) {}
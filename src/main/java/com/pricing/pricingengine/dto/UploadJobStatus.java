@@ -0,0 +1,17 @@
+package com.pricing.pricingengine.dto;
+
+import java.time.Instant;
+
+public record UploadJobStatus(
+        String jobId,
+        String batchId,
+        String state,
+        long rowsParsed,
+        long rowsPersisted,
+        long chunksPersisted,
+        double rowsPerSecond,
+        Instant submittedAt,
+        Instant startedAt,
+        Instant finishedAt,
+        String failure
+) {}
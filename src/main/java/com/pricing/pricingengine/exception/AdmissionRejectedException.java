@@ -0,0 +1,20 @@
+package com.pricing.pricingengine.exception;
+
+import java.time.Duration;
+
+/**
+ * An upload turned away to protect the database; answered 429 with {@code Retry-After}.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
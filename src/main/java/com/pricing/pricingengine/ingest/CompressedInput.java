@@ -0,0 +1,75 @@
+package com.pricing.pricingengine.ingest;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Recognizes compressed uploads by their leading magic bytes, whatever the file name or content type says.
+ * <p>
+ * gzip (including concatenated members, as produced by parallel compressors) is decompressed on the fly;
+ * anything else is passed through as plain CSV. zstd frames are recognized and rejected, since no zstd
+ * decoder ships with the application. A corrupt or truncated gzip stream is the client's fault like any other
+ * malformed upload, so it surfaces as {@link IllegalArgumentException} rather than as an I/O error.
+ */
+public final class CompressedInput {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int GZIP_MAGIC = 0x1f8b;
+    private static final int ZSTD_MAGIC = 0x28b52ffd;
+
+    private CompressedInput() {}
+
+    /**
+     * @throws IllegalArgumentException for a compression format that cannot be decoded; reads from the
+     *                                  returned stream throw it too if the gzip data turns out corrupt
+     */
+    public static InputStream open(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(4);
+        byte[] head = buffered.readNBytes(4);
+        buffered.reset();
+
+        if (head.length >= 2 && ((head[0] & 0xff) << 8 | head[1] & 0xff) == GZIP_MAGIC) {
+            try {
+                return new GzipInput(buffered);
+            } catch (ZipException | EOFException e) {
+                in.close();
+                throw corrupt(e);
+            }
+        }
+        if (head.length == 4 && readInt(head) == ZSTD_MAGIC) {
+            in.close();
+            throw new IllegalArgumentException("zstd-compressed uploads are not supported, use gzip or plain CSV");
+        }
+        return buffered;
+    }
+
+    private static int readInt(byte[] b) {
+        return (b[0] & 0xff) << 24 | (b[1] & 0xff) << 16 | (b[2] & 0xff) << 8 | b[3] & 0xff;
+    }
+
+    private static IllegalArgumentException corrupt(IOException e) {
+        return new IllegalArgumentException("Corrupt gzip upload: " + e.getMessage(), e);
+    }
+
+    private static final class GzipInput extends GZIPInputStream {
+
+        GzipInput(InputStream in) throws IOException {
+            super(in, BUFFER_SIZE);
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            try {
+                return super.read(buf, off, len);
+            } catch (ZipException | EOFException e) {
+                throw corrupt(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.pricing.pricingengine.ingest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Decodes UTC ISO-8601 instants ({@code yyyy-MM-ddTHH:mm:ss[.fffffffff]Z}) straight from bytes.
+ * Anything outside that fixed shape (offsets, leap seconds, extended years) falls back to {@link Instant#parse}.
+ */
+final class IsoInstantDecoder {
+
+    private static final int BASE_LENGTH = 20; // 2025-12-15T10:00:00Z
+
+    private IsoInstantDecoder() {}
+
+    static Instant decode(byte[] buf, int off, int len) {
+        Instant fast = decodeFixed(buf, off, len);
+        return fast != null ? fast : Instant.parse(new String(buf, off, len, StandardCharsets.US_ASCII));
+    }
+
+    private static Instant decodeFixed(byte[] b, int o, int len) {
+        if (len < BASE_LENGTH
+                || b[o + 4] != '-' || b[o + 7] != '-' || (b[o + 10] != 'T' && b[o + 10] != 't')
+                || b[o + 13] != ':' || b[o + 16] != ':' || b[o + len - 1] != 'Z') {
+            return null;
+        }
+        int year = digits(b, o, 4);
+        int month = digits(b, o + 5, 2);
+        int day = digits(b, o + 8, 2);
+        int hour = digits(b, o + 11, 2);
+        int minute = digits(b, o + 14, 2);
+        int second = digits(b, o + 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+
+        int nanos = 0;
+        int fractionLength = len - BASE_LENGTH;
+        if (fractionLength > 0) {
+            if (b[o + 19] != '.' || fractionLength < 2 || fractionLength > 10) {
+                return null;
+            }
+            int fraction = digits(b, o + 20, fractionLength - 1);
+            if (fraction < 0) {
+                return null;
+            }
+            nanos = fraction;
+            for (int i = fractionLength - 1; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+
+        long epochSecond = epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+        return Instant.ofEpochSecond(epochSecond, nanos);
+    }
+
+    /**
+     * Returns the decimal value of {@code count} ASCII digits, or -1 if any byte is not a digit.
+     */
+    private static int digits(byte[] b, int off, int count) {
+        int value = 0;
+        for (int i = off; i < off + count; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeap(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static boolean isLeap(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date (Hinnant's days_from_civil).
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468L;
+    }
+}
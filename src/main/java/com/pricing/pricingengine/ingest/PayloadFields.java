@@ -0,0 +1,84 @@
+package com.pricing.pricingengine.ingest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Pulls the price and size out of a payload at ingest, so aggregations read numeric columns instead of
+ * parsing payloads.
+ * <p>
+ * The payload is read with a streaming parser that stops as soon as both top-level fields are found; nested
+ * objects are skipped unread. Numbers and numeric strings are accepted. A payload without the field, or that
+ * is not a JSON object, simply yields no value: extraction never fails an upload.
+ */
+@Component
+public class PayloadFields {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final boolean enabled;
+    private final String priceField;
+    private final String sizeField;
+
+    public PayloadFields(@Value("${pricing.fields.extract:false}") boolean enabled,
+                         @Value("${pricing.fields.price:price}") String priceField,
+                         @Value("${pricing.fields.size:size}") String sizeField) {
+        this.enabled = enabled;
+        this.priceField = priceField;
+        this.sizeField = sizeField;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Price and size of one payload.
+     *
+     * @param values receives the price at index 0 and the size at index 1, NaN for no value
+     */
+    public void extract(String payloadJson, double[] values) {
+        values[0] = Double.NaN;
+        values[1] = Double.NaN;
+        try (JsonParser parser = JSON.createParser(payloadJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            int missing = 2;
+            while (missing > 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                int slot = name.equals(priceField) ? 0 : name.equals(sizeField) ? 1 : -1;
+                if (slot >= 0 && Double.isNaN(values[slot])) {
+                    values[slot] = number(parser, value);
+                    missing--;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            // malformed payload: whatever was found before the error stands
+        }
+    }
+
+    private static double number(JsonParser parser, JsonToken value) throws IOException {
+        double number = Double.NaN;
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            number = parser.getDoubleValue();
+        } else if (value == JsonToken.VALUE_STRING) {
+            try {
+                number = Double.parseDouble(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                // not numeric
+            }
+        } else {
+            parser.skipChildren();
+        }
+        return Double.isFinite(number) ? number : Double.NaN;
+    }
+}
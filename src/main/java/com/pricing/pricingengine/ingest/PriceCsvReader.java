@@ -0,0 +1,228 @@
+package com.pricing.pricingengine.ingest;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming parser for price CSV files.
+ * <p>
+ * Format, one record per line: {@code instrumentId,asOfIsoInstant,payloadJson}.
+ * The payload is everything after the second comma and may itself contain commas.
+ * Fields are trimmed, {@code \r\n} line endings and blank lines are accepted.
+ * <p>
+ * Lines are scanned directly in a reusable byte buffer, so the only allocations per row are
+ * the payload string, the {@link Instant} and the {@link PriceRecord}. Instrument ids are
+ * deduplicated through a small byte-keyed cache. Not thread-safe.
+ */
+public class PriceCsvReader implements Closeable {
+
+    private static final int INITIAL_BUFFER = 64 * 1024;
+    private static final int MAX_LINE = 16 * 1024 * 1024;
+    private static final int ID_CACHE_SIZE = 4096; // power of two
+
+    private final InputStream in;
+
+    private byte[] buf = new byte[INITIAL_BUFFER];
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private long lineNumber;
+
+    private final byte[][] idBytes = new byte[ID_CACHE_SIZE][];
+    private final String[] idStrings = new String[ID_CACHE_SIZE];
+
+    public PriceCsvReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns the next record, or {@code null} at end of input.
+     *
+     * @throws IllegalArgumentException if a line is malformed; the message carries its line number
+     */
+    public PriceRecord next() throws IOException {
+        while (true) {
+            int end = nextLineEnd();
+            if (end < 0) {
+                return null;
+            }
+            int start = pos;
+            pos = end + 1;
+            lineNumber++;
+
+            int stop = end;
+            if (stop > start && buf[stop - 1] == '\r') {
+                stop--;
+            }
+            if (isBlank(start, stop)) {
+                continue;
+            }
+            return parseLine(start, stop);
+        }
+    }
+
+    /**
+     * Appends up to {@code max} records to {@code into}.
+     *
+     * @return the number of records appended, 0 at end of input
+     */
+    public int read(List<PriceRecord> into, int max) throws IOException {
+        int count = 0;
+        PriceRecord record;
+        while (count < max && (record = next()) != null) {
+            into.add(record);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Number of lines consumed so far, including blank ones.
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private PriceRecord parseLine(int start, int stop) {
+        int firstComma = indexOf((byte) ',', start, stop);
+        int secondComma = firstComma < 0 ? -1 : indexOf((byte) ',', firstComma + 1, stop);
+        if (secondComma < 0) {
+            throw malformed(start, stop, "expected 3 fields", null);
+        }
+
+        int idStart = skipLeading(start, firstComma);
+        int idEnd = skipTrailing(idStart, firstComma);
+        int asOfStart = skipLeading(firstComma + 1, secondComma);
+        int asOfEnd = skipTrailing(asOfStart, secondComma);
+        int payloadStart = skipLeading(secondComma + 1, stop);
+        int payloadEnd = skipTrailing(payloadStart, stop);
+
+        Instant asOf;
+        try {
+            asOf = IsoInstantDecoder.decode(buf, asOfStart, asOfEnd - asOfStart);
+        } catch (DateTimeException e) {
+            throw malformed(start, stop, "invalid asOf", e);
+        }
+
+        return new PriceRecord(
+                instrumentId(idStart, idEnd),
+                asOf,
+                new String(buf, payloadStart, payloadEnd - payloadStart, StandardCharsets.UTF_8)
+        );
+    }
+
+    private String instrumentId(int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buf[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (ID_CACHE_SIZE - 1);
+
+        byte[] cached = idBytes[slot];
+        if (cached != null && Arrays.equals(cached, 0, cached.length, buf, start, end)) {
+            return idStrings[slot];
+        }
+        String id = new String(buf, start, end - start, StandardCharsets.UTF_8);
+        idBytes[slot] = Arrays.copyOfRange(buf, start, end);
+        idStrings[slot] = id;
+        return id;
+    }
+
+    /**
+     * Returns the index of the next '\n' (or of the end of input for an unterminated last line),
+     * refilling and growing the buffer as needed; -1 when the input is exhausted.
+     */
+    private int nextLineEnd() throws IOException {
+        int scanFrom = pos;
+        while (true) {
+            int newline = indexOf((byte) '\n', scanFrom, limit);
+            if (newline >= 0) {
+                return newline;
+            }
+            if (eof) {
+                if (pos >= limit) {
+                    return -1;
+                }
+                ensureCapacity(limit + 1);
+                buf[limit] = '\n';
+                return limit++;
+            }
+            scanFrom = limit - pos;
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) {
+            ensureCapacity(buf.length * 2);
+        }
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            eof = true;
+        } else {
+            limit += n;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buf.length) {
+            if (capacity > MAX_LINE) {
+                throw new IllegalArgumentException("Invalid CSV line " + (lineNumber + 1)
+                        + ": longer than " + MAX_LINE + " bytes");
+            }
+            buf = Arrays.copyOf(buf, Math.max(capacity, buf.length * 2));
+        }
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isBlank(int start, int stop) {
+        return skipLeading(start, stop) == stop;
+    }
+
+    private int skipLeading(int from, int to) {
+        while (from < to && (buf[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private int skipTrailing(int from, int to) {
+        while (to > from && (buf[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private IllegalArgumentException malformed(int start, int stop, String reason, Exception cause) {
+        int previewEnd = Math.min(stop, start + 200);
+        String line = new String(buf, start, previewEnd - start, StandardCharsets.UTF_8);
+        return new IllegalArgumentException(
+                "Invalid CSV line " + lineNumber + " (" + reason + "): " + line, cause);
+    }
+}
@@ -0,0 +1,140 @@
+package com.pricing.pricingengine.ingest;
+
+import com.pricing.pricingengine.dto.UploadJobStatus;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Progress of one asynchronous file upload. Updated by the pipeline stages, read by status requests.
+ */
+public class UploadJob {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private final String jobId;
+    private final String batchId;
+    private final List<Path> spoolFiles;
+    private final Instant submittedAt = Instant.now();
+
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsPersisted = new AtomicLong();
+    private final AtomicLong chunksPersisted = new AtomicLong();
+
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    // Not synchronized: a virtual thread waiting for a monitor would pin its carrier
+    private final ReentrantLock transitionLock = new ReentrantLock();
+
+    public UploadJob(String jobId, String batchId, List<Path> spoolFiles) {
+        this.jobId = jobId;
+        this.batchId = batchId;
+        this.spoolFiles = List.copyOf(spoolFiles);
+    }
+
+    public String jobId() {
+        return jobId;
+    }
+
+    public String batchId() {
+        return batchId;
+    }
+
+    /**
+     * Uploaded files as received, possibly compressed, in upload order.
+     */
+    public List<Path> spoolFiles() {
+        return spoolFiles;
+    }
+
+    public void start() {
+        startedAt = Instant.now();
+        state = State.RUNNING;
+    }
+
+    public void parsed(int rows) {
+        rowsParsed.addAndGet(rows);
+    }
+
+    public void persisted(int rows) {
+        rowsPersisted.addAndGet(rows);
+        chunksPersisted.incrementAndGet();
+    }
+
+    /**
+     * Records the first failure only; later stages failing as a consequence are not reported.
+     */
+    public void fail(String message) {
+        transitionLock.lock();
+        try {
+            if (state != State.FAILED) {
+                failure = message;
+                state = State.FAILED;
+                finishedAt = Instant.now();
+            }
+        } finally {
+            transitionLock.unlock();
+        }
+    }
+
+    public void succeed() {
+        transitionLock.lock();
+        try {
+            if (state == State.RUNNING) {
+                state = State.SUCCEEDED;
+                finishedAt = Instant.now();
+            }
+        } finally {
+            transitionLock.unlock();
+        }
+    }
+
+    public boolean isFailed() {
+        return state == State.FAILED;
+    }
+
+    public boolean isFinishedBefore(Instant cutoff) {
+        Instant finished = finishedAt;
+        return finished != null && finished.isBefore(cutoff);
+    }
+
+    public UploadJobStatus status() {
+        Instant started = startedAt;
+        Instant finished = finishedAt;
+        long persisted = rowsPersisted.get();
+
+        double rowsPerSecond = 0;
+        if (started != null) {
+            Duration elapsed = Duration.between(started, finished != null ? finished : Instant.now());
+            if (!elapsed.isZero()) {
+                rowsPerSecond = persisted * 1_000_000_000d / elapsed.toNanos();
+            }
+        }
+
+        return new UploadJobStatus(
+                jobId,
+                batchId,
+                state.name(),
+                rowsParsed.get(),
+                persisted,
+                chunksPersisted.get(),
+                rowsPerSecond,
+                submittedAt,
+                started,
+                finished,
+                failure
+        );
+    }
+}
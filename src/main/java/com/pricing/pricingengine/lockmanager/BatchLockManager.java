@@ -1,29 +1,19 @@
 package com.pricing.pricingengine.lockmanager;
 
-import org.springframework.stereotype.Component;
-import java.util.concurrent.*;
-import java.util.concurrent.locks.*;
+/**
+ * Per-batch shared/exclusive locking, selected with {@code pricing.lock.mode}.
+ * <p>
+ * Uploads take the shared lock, complete and cancel the exclusive one. Both must be called
+ * inside a transaction; a lock lasts until that transaction commits or rolls back.
+ */
+public interface BatchLockManager {
 
-@Component
-public class BatchLockManager {
+    void lockShared(String batchId);
 
-    private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    void lockExclusive(String batchId);
 
-    public Lock lock(String batchId) {
-        ReentrantLock lock = locks.computeIfAbsent(batchId, id -> new ReentrantLock());
-        lock.lock(); // block until acquired
-        return lock;
-    }
-
-    public void unlock(String batchId, Lock lock) {
-        ReentrantLock reentrantLock = (ReentrantLock) lock;
-        try {
-            reentrantLock.unlock();
-        } finally {
-            // remove only if no thread is holding or waiting
-            if (!reentrantLock.isLocked() && !reentrantLock.hasQueuedThreads()) {
-                locks.remove(batchId, reentrantLock);
-            }
-        }
-    }
+    /**
+     * Number of batch locks currently held or awaited by this node.
+     */
+    int liveLocks();
 }
@@ -0,0 +1,50 @@
+package com.pricing.pricingengine.lockmanager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wait and hold timers for batch locks, tagged by mode, plus the live lock gauge.
+ * <p>
+ * Timers are tagged by mode only, not by batch id: batch ids are unbounded and would create a
+ * new time series per batch.
+ */
+final class BatchLockMetrics {
+
+    private final Timer sharedWait;
+    private final Timer exclusiveWait;
+    private final Timer sharedHold;
+    private final Timer exclusiveHold;
+
+    BatchLockMetrics(MeterRegistry registry, BatchLockManager manager) {
+        this.sharedWait = timer(registry, "pricing.lock.wait", "shared");
+        this.exclusiveWait = timer(registry, "pricing.lock.wait", "exclusive");
+        this.sharedHold = timer(registry, "pricing.lock.hold", "shared");
+        this.exclusiveHold = timer(registry, "pricing.lock.hold", "exclusive");
+
+        Gauge.builder("pricing.lock.live", manager, BatchLockManager::liveLocks)
+                .description("Batch locks currently held or awaited by this node")
+                .register(registry);
+    }
+
+    void waited(boolean exclusive, long nanos) {
+        (exclusive ? exclusiveWait : sharedWait).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void held(boolean exclusive, long nanos) {
+        (exclusive ? exclusiveHold : sharedHold).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String mode) {
+        return Timer.builder(name)
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+}
@@ -0,0 +1,102 @@
+package com.pricing.pricingengine.lockmanager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch locks held in the database, so several nodes can serve the same batches.
+ * <p>
+ * Exclusive: {@code SELECT ... FOR UPDATE} on the price_batch row, held until the transaction ends.
+ * <p>
+ * Shared: no lock while rows are inserted. Just before commit the upload fences itself with a
+ * conditional version bump on the batch row, which only succeeds while the batch is STARTED.
+ * That row write conflicts with an exclusive holder: an upload whose fence ran first makes the
+ * completion wait for its commit, and an upload fencing after a completion finds the batch
+ * COMPLETED and rolls back. Concurrent uploads only serialize for their commit.
+ * The version bump also makes stale copies of the batch fail {@code @Version} checks.
+ * <p>
+ * Single-node cost is one extra statement per upload chunk and per complete/cancel.
+ */
+@Component
+@ConditionalOnProperty(name = "pricing.lock.mode", havingValue = "database")
+public class DatabaseBatchLockManager implements BatchLockManager {
+
+    private static final String LOCK_SQL = "SELECT id FROM price_batch WHERE id = ? FOR UPDATE";
+
+    private static final String FENCE_SQL =
+            "UPDATE price_batch SET version = version + 1 WHERE id = ? AND status = 'STARTED'";
+
+    private final JdbcTemplate jdbc;
+
+    private final AtomicInteger liveLocks = new AtomicInteger();
+
+    private final BatchLockMetrics metrics;
+
+    public DatabaseBatchLockManager(JdbcTemplate jdbc, MeterRegistry registry) {
+        this.jdbc = jdbc;
+        this.metrics = new BatchLockMetrics(registry, this);
+    }
+
+    @Override
+    public void lockShared(String batchId) {
+        requireTransaction();
+        liveLocks.incrementAndGet();
+        untrackAfterCompletion(false, System.nanoTime());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // The fence is where a shared holder can wait, behind an exclusive holder's row lock
+                long waitStart = System.nanoTime();
+                int fenced = jdbc.update(FENCE_SQL, batchId);
+                metrics.waited(false, System.nanoTime() - waitStart);
+                if (fenced == 0) {
+                    throw new IllegalStateException("Batch not STARTED");
+                }
+            }
+        });
+    }
+
+    @Override
+    public void lockExclusive(String batchId) {
+        requireTransaction();
+        liveLocks.incrementAndGet();
+        long waitStart = System.nanoTime();
+        try {
+            // Row lock waits for in-flight fences and blocks new ones until this transaction ends
+            jdbc.queryForList(LOCK_SQL, String.class, batchId);
+        } catch (RuntimeException e) {
+            liveLocks.decrementAndGet();
+            throw e;
+        }
+        long acquiredAt = System.nanoTime();
+        metrics.waited(true, acquiredAt - waitStart);
+        untrackAfterCompletion(true, acquiredAt);
+    }
+
+    @Override
+    public int liveLocks() {
+        return liveLocks.get();
+    }
+
+    private void untrackAfterCompletion(boolean exclusive, long acquiredAt) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                liveLocks.decrementAndGet();
+                metrics.held(exclusive, System.nanoTime() - acquiredAt);
+            }
+        });
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Batch locks must be taken inside a transaction");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.pricing.pricingengine.lockmanager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * JVM-local per-batch shared/exclusive locks, for single-node deployments.
+ * <p>
+ * Uploads take the shared lock, so chunks of the same batch insert concurrently; complete and
+ * cancel take the exclusive lock. Locks are bound to the caller's transaction and released only
+ * after it commits or rolls back, so a completion can never commit between an upload's status
+ * check and that upload's commit.
+ */
+@Component
+@ConditionalOnProperty(name = "pricing.lock.mode", havingValue = "local", matchIfMissing = true)
+public class LocalBatchLockManager implements BatchLockManager {
+
+    private final ConcurrentHashMap<String, LockEntry> locks = new ConcurrentHashMap<>();
+
+    private final BatchLockMetrics metrics;
+
+    public LocalBatchLockManager(MeterRegistry registry) {
+        this.metrics = new BatchLockMetrics(registry, this);
+    }
+
+    @Override
+    public void lockShared(String batchId) {
+        acquire(batchId, false);
+    }
+
+    @Override
+    public void lockExclusive(String batchId) {
+        acquire(batchId, true);
+    }
+
+    @Override
+    public int liveLocks() {
+        return locks.size();
+    }
+
+    private void acquire(String batchId, boolean exclusive) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Batch locks must be taken inside a transaction");
+        }
+
+        // Reference-counted so an entry is never removed while another thread is about to lock it
+        LockEntry entry = locks.compute(batchId, (id, existing) -> {
+            LockEntry e = existing != null ? existing : new LockEntry();
+            e.users++;
+            return e;
+        });
+
+        Lock lock = exclusive ? entry.lock.writeLock() : entry.lock.readLock();
+        long waitStart = System.nanoTime();
+        try {
+            lock.lock(); // block until acquired
+        } catch (RuntimeException e) {
+            release(batchId, entry);
+            throw e;
+        }
+        long acquiredAt = System.nanoTime();
+        metrics.waited(exclusive, acquiredAt - waitStart);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+                metrics.held(exclusive, System.nanoTime() - acquiredAt);
+                release(batchId, entry);
+            }
+        });
+    }
+
+    private void release(String batchId, LockEntry entry) {
+        locks.computeIfPresent(batchId, (id, e) -> {
+            if (e != entry) {
+                return e;
+            }
+            return --e.users == 0 ? null : e;
+        });
+    }
+
+    private static final class LockEntry {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        int users; // guarded by the map's per-key compute
+    }
+}
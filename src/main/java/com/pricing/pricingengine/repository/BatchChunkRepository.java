@@ -0,0 +1,26 @@
+package com.pricing.pricingengine.repository;
+
+import com.pricing.pricingengine.domain.BatchChunkEntity;
+import org.springframework.data.jpa.repository.*;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface BatchChunkRepository extends JpaRepository<BatchChunkEntity, BatchChunkEntity.Key> {
+
+    List<BatchChunkEntity> findByBatchIdOrderBySeq(String batchId);
+
+    /**
+     * Plain insert, no merge: a concurrent retry of the same chunk waits on the key and then fails as a duplicate.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+    INSERT INTO batch_chunk (batch_id, seq, checksum, row_count, committed_at)
+    VALUES (:batchId, :seq, :checksum, :rowCount, :committedAt)
+    """)
+    void insert(String batchId, int seq, String checksum, int rowCount, Instant committedAt);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM batch_chunk WHERE batch_id = :batchId")
+    int deleteByBatch(String batchId);
+}
@@ -1,8 +1,19 @@
 package com.pricing.pricingengine.repository;
 
 import com.pricing.pricingengine.domain.BatchEntity;
+import com.pricing.pricingengine.domain.BatchStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface BatchRepository extends JpaRepository<BatchEntity, String> {
-}
 
+    List<BatchEntity> findByStatusAndPurgedAtIsNull(BatchStatus status);
+
+    long countByStatus(BatchStatus status);
+
+    /**
+     * Batches numbered {@code from} to {@code to} (inclusive) on completion, in completion order.
+     */
+    List<BatchEntity> findByCompletionSeqBetweenOrderByCompletionSeq(long from, long to);
+}
@@ -0,0 +1,63 @@
+package com.pricing.pricingengine.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Hands out batch completion sequence numbers in commit order.
+ * <p>
+ * {@link #next()} bumps a single counter row, whose row lock is then held until the completing transaction
+ * ends. A completion that takes number n therefore commits before any completion can take n + 1: once
+ * n is visible, every number below it is visible too, on every node. Callers take the number as the last
+ * step before commit, so completions only serialize on the commit itself.
+ */
+@Repository
+@DependsOn("entityManagerFactory") // the schema, including the counter table, exists once it is up
+public class CompletionSequence {
+
+    private static final int ROW_ID = 1;
+
+    private static final String SEED_SQL = """
+            INSERT INTO completion_sequence (id, last_seq)
+            SELECT ?, COALESCE(MAX(completion_seq), 0) FROM price_batch
+            WHERE NOT EXISTS (SELECT 1 FROM completion_sequence WHERE id = ?)
+            """;
+
+    private static final String BUMP_SQL = "UPDATE completion_sequence SET last_seq = last_seq + 1 WHERE id = ?";
+    private static final String READ_SQL = "SELECT last_seq FROM completion_sequence WHERE id = ?";
+
+    private final JdbcTemplate jdbc;
+
+    public CompletionSequence(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    void seed() {
+        try {
+            jdbc.update(SEED_SQL, ROW_ID, ROW_ID);
+        } catch (DuplicateKeyException e) {
+            // seeded concurrently by another node
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long next() {
+        if (jdbc.update(BUMP_SQL, ROW_ID) != 1) {
+            throw new IllegalStateException("Completion sequence row missing");
+        }
+        return jdbc.queryForObject(READ_SQL, Long.class, ROW_ID);
+    }
+
+    /**
+     * Highest number whose completion has committed; every lower number has committed as well.
+     */
+    public long committed() {
+        return jdbc.queryForObject(READ_SQL, Long.class, ROW_ID);
+    }
+}
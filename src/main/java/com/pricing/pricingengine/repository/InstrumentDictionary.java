@@ -0,0 +1,154 @@
+package com.pricing.pricingengine.repository;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resolves instrument ids to their integer keys in the instrument table, through an in-memory cache.
+ * <p>
+ * Keys never change once assigned, so cached entries never go stale and the cache is never invalidated.
+ * New instruments are inserted in their own short transaction, committed before the caller's upload
+ * transaction starts: a key is visible to every other upload at once, and an upload that later rolls
+ * back only leaves an unused dictionary entry behind.
+ */
+@Component
+public class InstrumentDictionary {
+
+    private static final int IN_LIST_SIZE = 1000;
+
+    private static final String SELECT_SQL =
+            "SELECT id, instrument_id FROM instrument WHERE instrument_id IN (:ids)";
+
+    // Inserts only what is still missing; a concurrent insert on another node surfaces as a duplicate key
+    private static final String INSERT_SQL =
+            "INSERT INTO instrument (instrument_id) SELECT CAST(:id AS VARCHAR(255)) WHERE NOT EXISTS "
+                    + "(SELECT 1 FROM instrument WHERE instrument_id = :id)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate newTransaction;
+
+    private final ConcurrentHashMap<String, Integer> keys = new ConcurrentHashMap<>();
+    private final ReentrantLock insertLock = new ReentrantLock();
+
+    public InstrumentDictionary(NamedParameterJdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Key of each record's instrument, in record order; instruments seen for the first time are added.
+     */
+    public int[] keysFor(List<PriceRecord> records) {
+        int[] result = new int[records.size()];
+        Set<String> missing = null;
+        for (int i = 0; i < result.length; i++) {
+            Integer key = keys.get(records.get(i).instrumentId());
+            if (key != null) {
+                result[i] = key;
+            } else {
+                if (missing == null) {
+                    missing = new HashSet<>();
+                }
+                missing.add(records.get(i).instrumentId());
+            }
+        }
+        if (missing == null) {
+            return result;
+        }
+
+        create(missing);
+        for (int i = 0; i < result.length; i++) {
+            if (result[i] == 0) { // identity keys start at 1
+                result[i] = keys.get(records.get(i).instrumentId());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keys of the given instruments that exist; unknown instruments are left out.
+     */
+    public Map<String, Integer> existingKeys(Collection<String> instrumentIds) {
+        Map<String, Integer> result = new HashMap<>(instrumentIds.size() * 2);
+        List<String> missing = new ArrayList<>();
+        for (String id : instrumentIds) {
+            Integer key = keys.get(id);
+            if (key != null) {
+                result.put(id, key);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            load(missing); // may have been added by another node
+            for (String id : missing) {
+                Integer key = keys.get(id);
+                if (key != null) {
+                    result.put(id, key);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void create(Set<String> instrumentIds) {
+        insertLock.lock();
+        try {
+            // Another upload may have added them while this one waited for the lock
+            List<String> absent = absent(instrumentIds);
+            if (absent.isEmpty()) {
+                return;
+            }
+            load(absent);
+            absent = absent(absent);
+            if (!absent.isEmpty()) {
+                insert(absent);
+                load(absent);
+            }
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    private void insert(List<String> instrumentIds) {
+        SqlParameterSource[] batch = instrumentIds.stream()
+                .map(id -> new MapSqlParameterSource("id", id))
+                .toArray(SqlParameterSource[]::new);
+        try {
+            newTransaction.executeWithoutResult(status -> jdbc.batchUpdate(INSERT_SQL, batch));
+        } catch (DuplicateKeyException e) {
+            // Lost a race with another node: its rows are committed now, insert whatever is still missing
+            newTransaction.executeWithoutResult(status -> jdbc.batchUpdate(INSERT_SQL, batch));
+        }
+    }
+
+    private void load(List<String> instrumentIds) {
+        for (int from = 0; from < instrumentIds.size(); from += IN_LIST_SIZE) {
+            List<String> chunk = instrumentIds.subList(from, Math.min(from + IN_LIST_SIZE, instrumentIds.size()));
+            jdbc.query(SELECT_SQL, Map.of("ids", chunk),
+                    rs -> { keys.putIfAbsent(rs.getString(2), rs.getInt(1)); });
+        }
+    }
+
+    private List<String> absent(Collection<String> instrumentIds) {
+        List<String> absent = new ArrayList<>();
+        for (String id : instrumentIds) {
+            if (!keys.containsKey(id)) {
+                absent.add(id);
+            }
+        }
+        return absent;
+    }
+}
@@ -0,0 +1,138 @@
+package com.pricing.pricingengine.repository;
+
+import com.pricing.pricingengine.domain.BatchEntity;
+import com.pricing.pricingengine.domain.PriceEntity;
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.ingest.PayloadFields;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inserts rows straight into price_record with one reused prepared statement and large JDBC batches.
+ * <p>
+ * Nothing is attached to the persistence context and the batch is referenced by its id only, so
+ * heap use does not grow with the chunk. Ids come from the entity's sequence in blocks of
+ * {@link PriceEntity#ID_ALLOCATION_SIZE}, one round trip per block rather than per row.
+ */
+@Component
+@ConditionalOnProperty(name = "pricing.ingest.writer", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcPriceBulkWriter implements PriceBulkWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO price_record (id, instrument_key, as_of, payload_json, payload_id, price_value, size_value, batch_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String NEXT_ID_SQL = "SELECT NEXT VALUE FOR " + PriceEntity.ID_SEQUENCE;
+
+    private final JdbcTemplate jdbc;
+    private final PayloadFields fields;
+    private final int jdbcBatchSize;
+
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long nextId;
+    private long idLimit;
+
+    public JdbcPriceBulkWriter(JdbcTemplate jdbc,
+                               PayloadFields fields,
+                               @Value("${pricing.ingest.jdbc.batch-size:5000}") int jdbcBatchSize) {
+        this.jdbc = jdbc;
+        this.fields = fields;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    @Override
+    public void write(BatchEntity batch, List<PriceRecord> records, int[] instrumentKeys, long[] payloadIds) {
+        long[] ids = allocateIds(records.size());
+        String batchId = batch.getId();
+
+        jdbc.batchUpdate(INSERT_SQL, records, jdbcBatchSize,
+                new IdAssigningSetter(ids, instrumentKeys, payloadIds, fields.isEnabled() ? fields : null, batchId));
+    }
+
+    private long[] allocateIds(int count) {
+        long[] ids = new long[count];
+        idLock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                if (nextId == idLimit) {
+                    Long blockStart = jdbc.queryForObject(NEXT_ID_SQL, Long.class);
+                    nextId = blockStart;
+                    idLimit = blockStart + PriceEntity.ID_ALLOCATION_SIZE;
+                }
+                ids[i] = nextId++;
+            }
+        } finally {
+            idLock.unlock();
+        }
+        return ids;
+    }
+
+    /**
+     * Binds rows in order; JdbcTemplate calls it sequentially across all sub-batches.
+     */
+    private static final class IdAssigningSetter
+            implements ParameterizedPreparedStatementSetter<PriceRecord> {
+
+        private final long[] ids;
+        private final int[] instrumentKeys;
+        private final long[] payloadIds;
+        private final PayloadFields fields;
+        private final String batchId;
+        private final double[] values = new double[2];
+        private int row;
+
+        /**
+         * @param fields null when field extraction is off
+         */
+        IdAssigningSetter(long[] ids, int[] instrumentKeys, long[] payloadIds, PayloadFields fields, String batchId) {
+            this.ids = ids;
+            this.instrumentKeys = instrumentKeys;
+            this.payloadIds = payloadIds;
+            this.fields = fields;
+            this.batchId = batchId;
+        }
+
+        @Override
+        public void setValues(PreparedStatement ps, PriceRecord record) throws SQLException {
+            ps.setLong(1, ids[row]);
+            ps.setInt(2, instrumentKeys[row]);
+            ps.setObject(3, OffsetDateTime.ofInstant(record.asOf(), ZoneOffset.UTC));
+            if (payloadIds != null) {
+                ps.setNull(4, Types.CLOB);
+                ps.setLong(5, payloadIds[row]);
+            } else {
+                ps.setString(4, record.payloadJson());
+                ps.setNull(5, Types.BIGINT);
+            }
+            if (fields != null) {
+                fields.extract(record.payloadJson(), values);
+                setDouble(ps, 6, values[0]);
+                setDouble(ps, 7, values[1]);
+            } else {
+                ps.setNull(6, Types.DOUBLE);
+                ps.setNull(7, Types.DOUBLE);
+            }
+            ps.setString(8, batchId);
+            row++;
+        }
+
+        private static void setDouble(PreparedStatement ps, int index, double value) throws SQLException {
+            if (Double.isNaN(value)) {
+                ps.setNull(index, Types.DOUBLE);
+            } else {
+                ps.setDouble(index, value);
+            }
+        }
+    }
+}
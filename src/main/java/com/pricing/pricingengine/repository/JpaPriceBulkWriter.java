@@ -0,0 +1,47 @@
+package com.pricing.pricingengine.repository;
+
+import com.pricing.pricingengine.domain.BatchEntity;
+import com.pricing.pricingengine.domain.PriceEntity;
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.ingest.PayloadFields;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists rows as {@link PriceEntity} through the persistence context.
+ */
+@Component
+@ConditionalOnProperty(name = "pricing.ingest.writer", havingValue = "jpa")
+public class JpaPriceBulkWriter implements PriceBulkWriter {
+
+    private final PriceRepository priceRepo;
+    private final PayloadFields fields;
+
+    public JpaPriceBulkWriter(PriceRepository priceRepo, PayloadFields fields) {
+        this.priceRepo = priceRepo;
+        this.fields = fields;
+    }
+
+    @Override
+    public void write(BatchEntity batch, List<PriceRecord> records, int[] instrumentKeys, long[] payloadIds) {
+        List<PriceEntity> entities = new ArrayList<>(records.size());
+        double[] values = new double[2];
+        for (int i = 0; i < records.size(); i++) {
+            PriceRecord r = records.get(i);
+            PriceEntity entity = payloadIds != null
+                    ? new PriceEntity(instrumentKeys[i], r.asOf(), payloadIds[i], batch)
+                    : new PriceEntity(instrumentKeys[i], r.asOf(), r.payloadJson(), batch);
+            if (fields.isEnabled()) {
+                fields.extract(r.payloadJson(), values);
+                entity.setFields(values[0], values[1]);
+            }
+            entities.add(entity);
+        }
+
+        priceRepo.saveAll(entities);
+        priceRepo.flush();
+    }
+}
@@ -0,0 +1,53 @@
+package com.pricing.pricingengine.repository;
+
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.domain.LatestPriceEntity;
+import org.springframework.data.jpa.repository.*;
+import java.util.*;
+
+public interface LatestPriceRepository extends JpaRepository<LatestPriceEntity, Integer> {
+
+    /**
+     * Folds the newest row per instrument of one batch into latest_price.
+     * Must run in the transaction that completes the batch so visibility stays all-or-nothing.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+    MERGE INTO latest_price t
+    USING (SELECT instrument_key, as_of, payload_json, payload_id, batch_id FROM (
+               SELECT p.instrument_key, p.as_of, p.payload_json, p.payload_id, p.batch_id,
+                      ROW_NUMBER() OVER (PARTITION BY p.instrument_key ORDER BY p.as_of DESC, p.id DESC) AS rn
+               FROM price_record p
+               WHERE p.batch_id = :batchId) ranked
+           WHERE rn = 1) s
+    ON t.instrument_key = s.instrument_key
+    WHEN MATCHED AND s.as_of >= t.as_of THEN
+        UPDATE SET as_of = s.as_of, payload_json = s.payload_json, payload_id = s.payload_id, batch_id = s.batch_id
+    WHEN NOT MATCHED THEN
+        INSERT (instrument_key, as_of, payload_json, payload_id, batch_id)
+        VALUES (s.instrument_key, s.as_of, s.payload_json, s.payload_id, s.batch_id)
+    """)
+    int upsertFromBatch(String batchId);
+
+    @Query("""
+    SELECT new com.pricing.pricingengine.domain.LatestPrice(
+               i.instrumentId, l.asOf, l.payloadJson, d.encoding, d.data, l.batchId)
+    FROM LatestPriceEntity l
+    JOIN InstrumentEntity i ON i.id = l.instrumentKey
+    LEFT JOIN PayloadEntity d ON d.id = l.payloadId
+    """)
+    List<LatestPrice> findAllLatest();
+
+    /**
+     * Instruments whose latest price is currently held by the given batch.
+     */
+    @Query("""
+    SELECT new com.pricing.pricingengine.domain.LatestPrice(
+               i.instrumentId, l.asOf, l.payloadJson, d.encoding, d.data, l.batchId)
+    FROM LatestPriceEntity l
+    JOIN InstrumentEntity i ON i.id = l.instrumentKey
+    LEFT JOIN PayloadEntity d ON d.id = l.payloadId
+    WHERE l.batchId = :batchId
+    """)
+    List<LatestPrice> findLatestByBatch(String batchId);
+}
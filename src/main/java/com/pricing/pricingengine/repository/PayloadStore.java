@@ -0,0 +1,228 @@
+package com.pricing.pricingengine.repository;
+
+import com.pricing.pricingengine.domain.Payload;
+import com.pricing.pricingengine.domain.PayloadEntity;
+import com.pricing.pricingengine.dto.PriceRecord;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content-addressed payload storage for {@code pricing.payload.mode=compact}: each distinct payload is stored
+ * once in the payload table, deflated when above {@code pricing.payload.inline-limit} bytes, and price rows
+ * reference it by id.
+ * <p>
+ * Like {@link InstrumentDictionary}, new payloads are inserted in their own short transaction before the
+ * caller's upload transaction starts; an upload that later rolls back only leaves unreferenced payloads
+ * behind. Recently seen hashes are cached, so a payload repeated tick after tick costs a hash and no query.
+ * The segment storage keeps payloads in its own files, so compact payloads apply to database storage only.
+ */
+@Component
+public class PayloadStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PayloadStore.class);
+
+    private static final int IN_LIST_SIZE = 1000;
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private static final String SELECT_SQL = "SELECT id, hash FROM payload WHERE hash IN (:hashes)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO payload (hash, encoding, data) SELECT CAST(:hash AS VARBINARY(32)), :encoding, :data "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM payload WHERE hash = :hash)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate newTransaction;
+    private final boolean compact;
+    private final int inlineLimit;
+
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    /** Least recently used first; guarded by {@code cacheLock}. */
+    private final LinkedHashMap<Digest, Long> ids;
+
+    public PayloadStore(NamedParameterJdbcTemplate jdbc,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${pricing.payload.mode:plain}") String mode,
+                        @Value("${pricing.storage.mode:database}") String storageMode,
+                        @Value("${pricing.payload.inline-limit:256}") int inlineLimit,
+                        @Value("${pricing.payload.cache-entries:100000}") int cacheEntries) {
+        this.jdbc = jdbc;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.inlineLimit = inlineLimit;
+        this.ids = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Digest, Long> eldest) {
+                return size() > cacheEntries;
+            }
+        };
+
+        if (!mode.equals("plain") && !mode.equals("compact")) {
+            throw new IllegalArgumentException("pricing.payload.mode must be plain or compact, not " + mode);
+        }
+        boolean segments = storageMode.equals("segment");
+        if (mode.equals("compact") && segments) {
+            log.warn("pricing.payload.mode=compact has no effect with segment storage");
+        }
+        this.compact = mode.equals("compact") && !segments;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Payload id of each record, in record order; payloads seen for the first time are stored.
+     *
+     * @return null unless compact payloads are enabled
+     */
+    public long[] idsFor(List<PriceRecord> records) {
+        if (!compact) {
+            return null;
+        }
+        long[] result = new long[records.size()];
+        byte[][] utf8 = new byte[records.size()][];
+        Digest[] digests = new Digest[records.size()];
+        MessageDigest sha256 = sha256();
+        for (int i = 0; i < result.length; i++) {
+            utf8[i] = records.get(i).payloadJson().getBytes(StandardCharsets.UTF_8);
+            digests[i] = new Digest(sha256.digest(utf8[i]));
+        }
+
+        Map<Digest, byte[]> missing = new HashMap<>();
+        cacheLock.lock();
+        try {
+            for (int i = 0; i < result.length; i++) {
+                Long id = ids.get(digests[i]);
+                if (id != null) {
+                    result[i] = id;
+                } else {
+                    missing.putIfAbsent(digests[i], utf8[i]);
+                }
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Digest, Long> resolved = create(missing);
+        for (int i = 0; i < result.length; i++) {
+            if (result[i] == 0) { // identity ids start at 1
+                result[i] = resolved.get(digests[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores the payloads not found and returns the ids of all of them, read back after the insert. Nothing is
+     * held across the round trips: uploads racing on the same payload both insert, the WHERE NOT EXISTS or the
+     * unique hash turns the loser's row away, and both read the winner's id.
+     */
+    private Map<Digest, Long> create(Map<Digest, byte[]> payloads) {
+        Map<Digest, Long> found = load(payloads.keySet());
+        List<Map.Entry<Digest, byte[]>> absent = new ArrayList<>();
+        payloads.entrySet().forEach(payload -> {
+            if (!found.containsKey(payload.getKey())) {
+                absent.add(payload);
+            }
+        });
+        if (absent.isEmpty()) {
+            return found;
+        }
+        // Inserted in hash order, so concurrent inserts of overlapping payloads take their key locks in one order
+        absent.sort(Map.Entry.comparingByKey());
+        SqlParameterSource[] batch = new SqlParameterSource[absent.size()];
+        for (int i = 0; i < batch.length; i++) {
+            byte[] utf8 = absent.get(i).getValue();
+            Payload stored = Payload.encode(utf8, inlineLimit);
+            if (stored.data().length > PayloadEntity.MAX_DATA_LENGTH) {
+                throw new IllegalArgumentException("Payload of " + utf8.length + " bytes is too large");
+            }
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("hash", absent.get(i).getKey().bytes())
+                    .addValue("encoding", stored.encoding())
+                    .addValue("data", stored.data());
+        }
+        insert(batch);
+        return load(payloads.keySet());
+    }
+
+    private void insert(SqlParameterSource[] batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                newTransaction.executeWithoutResult(status -> jdbc.batchUpdate(INSERT_SQL, batch));
+                return;
+            } catch (DuplicateKeyException e) {
+                // Lost a race with another upload: its rows are committed now, insert whatever is still missing
+                if (attempt == MAX_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ids of the payloads that exist, which are also added to the cache.
+     */
+    private Map<Digest, Long> load(Collection<Digest> digests) {
+        Map<Digest, Long> found = new HashMap<>(digests.size() * 2);
+        List<byte[]> hashes = digests.stream().map(Digest::bytes).toList();
+        for (int from = 0; from < hashes.size(); from += IN_LIST_SIZE) {
+            List<byte[]> chunk = hashes.subList(from, Math.min(from + IN_LIST_SIZE, hashes.size()));
+            jdbc.query(SELECT_SQL, Map.of("hashes", chunk),
+                    rs -> { found.put(new Digest(rs.getBytes(2)), rs.getLong(1)); });
+        }
+        cacheLock.lock();
+        try {
+            ids.putAll(found);
+        } finally {
+            cacheLock.unlock();
+        }
+        return found;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * SHA-256 with value semantics, usable as a map key.
+     */
+    private record Digest(byte[] bytes) implements Comparable<Digest> {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Digest other && Arrays.equals(bytes, other.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public int compareTo(Digest other) {
+            return Arrays.compareUnsigned(bytes, other.bytes);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.pricing.pricingengine.repository;
+
+import com.pricing.pricingengine.domain.BatchEntity;
+import com.pricing.pricingengine.dto.PriceRecord;
+
+import java.util.List;
+
+/**
+ * Writes one chunk of price rows into price_record for a batch.
+ * Implementations join the caller's transaction; selected with {@code pricing.ingest.writer}.
+ */
+public interface PriceBulkWriter {
+
+    /**
+     * @param instrumentKeys dictionary key of each record's instrument, in record order
+     * @param payloadIds     payload table id of each record's payload, in record order; null to store payloads inline
+     */
+    void write(BatchEntity batch, List<PriceRecord> records, int[] instrumentKeys, long[] payloadIds);
+}
@@ -0,0 +1,61 @@
+package com.pricing.pricingengine.repository;
+
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.domain.Payload;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Latest prices ordered by the completion sequence of the batch that won them.
+ * <p>
+ * Pages walk (completion_seq, instrument_key) upwards: a range scan on the completion_seq index of
+ * price_batch, then the (batch_id, instrument_key) index of latest_price per batch. The cost is proportional
+ * to the rows returned, not to the instrument universe. A price that changes while a client is paging moves
+ * to a higher sequence, i.e. ahead of the client's position, so it is never skipped.
+ */
+@Repository
+public class PriceChangeRepository {
+
+    private static final String PAGE_SQL = """
+            SELECT b.completion_seq, l.instrument_key, i.instrument_id, l.as_of, l.payload_json, d.encoding, d.data,
+                   l.batch_id
+            FROM price_batch b
+            JOIN latest_price l ON l.batch_id = b.id
+            JOIN instrument i ON i.id = l.instrument_key
+            LEFT JOIN payload d ON d.id = l.payload_id
+            WHERE b.completion_seq >= ?
+              AND (b.completion_seq > ? OR l.instrument_key > ?)
+            ORDER BY b.completion_seq, l.instrument_key
+            FETCH FIRST ? ROWS ONLY
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public PriceChangeRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @param sequence      completion sequence of the batch that last set the price
+     * @param instrumentKey dictionary key, the tie-breaker within a batch
+     */
+    public record Change(long sequence, int instrumentKey, LatestPrice price) {}
+
+    /**
+     * Up to {@code limit} changes strictly after position ({@code afterSequence}, {@code afterInstrumentKey}).
+     */
+    public List<Change> findAfter(long afterSequence, int afterInstrumentKey, int limit) {
+        return jdbc.query(PAGE_SQL, (rs, row) -> new Change(
+                        rs.getLong(1),
+                        rs.getInt(2),
+                        new LatestPrice(
+                                rs.getString(3),
+                                rs.getObject(4, OffsetDateTime.class).toInstant(),
+                                Payload.fromColumns(rs.getString(5), rs.getObject(6, Byte.class), rs.getBytes(7)),
+                                rs.getString(8))),
+                afterSequence, afterSequence, afterInstrumentKey, limit);
+    }
+}
@@ -0,0 +1,125 @@
+package com.pricing.pricingengine.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the price and size columns extracted at ingest, for aggregations.
+ * <p>
+ * One range seek per instrument on the (instrument_key, as_of) index, over completed batches only. All seeks
+ * are pinned to the same completion number, so a batch completing mid-request counts for every instrument or
+ * for none. Rows go straight into primitive arrays, never into entities, so aggregating a few million ticks
+ * costs a few arrays rather than millions of objects.
+ * <p>
+ * A price resent in a later batch for the same instant replaces the earlier one rather than adding a tick:
+ * of the rows for one {@code asOf}, only the one of the last completed batch counts, and the last written of
+ * that batch. It is skipped if it has no extracted price.
+ */
+@Repository
+public class PriceFieldRepository {
+
+    private static final String RANGE_SQL = """
+            SELECT p.as_of, p.price_value, p.size_value
+            FROM price_record p
+            JOIN price_batch b ON b.id = p.batch_id
+            WHERE p.instrument_key = ?
+              AND p.as_of >= ?
+              AND p.as_of < ?
+              AND b.status = 'COMPLETED'
+              AND (b.completion_seq IS NULL OR b.completion_seq <= ?)
+            ORDER BY p.instrument_key, p.as_of, b.completion_seq DESC NULLS LAST, b.completed_at DESC, p.id DESC
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public PriceFieldRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Ticks of one instrument, in {@code asOf} order.
+     *
+     * @param offsets nanoseconds since the start of the range
+     * @param sizes   NaN where the payload had no size
+     */
+    public record Ticks(long[] offsets, double[] prices, double[] sizes, int count) {
+
+        static final Ticks EMPTY = new Ticks(new long[0], new double[0], new double[0], 0);
+    }
+
+    /**
+     * Ticks with {@code from <= asOf < to} per instrument key, keyed like {@code keys}, from batches numbered
+     * at most {@code completedUpTo} (and those completed before numbering).
+     *
+     * @throws IllegalStateException if more than {@code maxRows} rows qualify in total
+     */
+    public Map<String, Ticks> findTicks(Map<String, Integer> keys, Instant from, Instant to, long completedUpTo,
+                                        long maxRows) {
+        OffsetDateTime start = OffsetDateTime.ofInstant(from, ZoneOffset.UTC);
+        OffsetDateTime end = OffsetDateTime.ofInstant(to, ZoneOffset.UTC);
+
+        return jdbc.execute((Connection con) -> {
+            Map<String, Ticks> ticks = new LinkedHashMap<>(keys.size() * 2);
+            long total = 0;
+            try (PreparedStatement ps = con.prepareStatement(RANGE_SQL)) {
+                ps.setObject(2, start);
+                ps.setObject(3, end);
+                ps.setLong(4, completedUpTo);
+                for (Map.Entry<String, Integer> instrument : keys.entrySet()) {
+                    ps.setInt(1, instrument.getValue());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        Ticks read = read(rs, from, maxRows - total);
+                        total += read.count();
+                        ticks.put(instrument.getKey(), read);
+                    }
+                }
+            }
+            return ticks;
+        });
+    }
+
+    private static Ticks read(ResultSet rs, Instant from, long budget) throws SQLException {
+        if (!rs.next()) {
+            return Ticks.EMPTY;
+        }
+        long[] offsets = new long[64];
+        double[] prices = new double[64];
+        double[] sizes = new double[64];
+        int n = 0;
+        long previous = Long.MIN_VALUE;
+        do {
+            long offset = Duration.between(from, rs.getObject(1, OffsetDateTime.class).toInstant()).toNanos();
+            if (offset == previous) {
+                continue; // superseded by the row before
+            }
+            previous = offset;
+            double price = rs.getDouble(2);
+            if (rs.wasNull()) {
+                continue;
+            }
+            if (n == budget) {
+                throw new IllegalStateException("Range holds too many prices; narrow it or ask for fewer instruments");
+            }
+            if (n == offsets.length) {
+                offsets = Arrays.copyOf(offsets, n * 2);
+                prices = Arrays.copyOf(prices, n * 2);
+                sizes = Arrays.copyOf(sizes, n * 2);
+            }
+            offsets[n] = offset;
+            prices[n] = price;
+            double size = rs.getDouble(3);
+            sizes[n] = rs.wasNull() ? Double.NaN : size;
+            n++;
+        } while (rs.next());
+        return n == 0 ? Ticks.EMPTY : new Ticks(offsets, prices, sizes, n);
+    }
+}
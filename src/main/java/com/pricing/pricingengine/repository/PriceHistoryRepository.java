@@ -0,0 +1,110 @@
+package com.pricing.pricingengine.repository;
+
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.domain.Payload;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Point-in-time lookups over the full price history in price_record.
+ * <p>
+ * One seek per instrument on the (instrument_key, as_of) index: the scan starts at the cutoff and
+ * walks backwards, stopping at the first row of a batch that qualifies. The cost is one short
+ * index descent per instrument, independent of how much history lies before the cutoff. When several
+ * completed batches hold a price for the same instant, the one completed last wins, as it does in
+ * latest_price: the seek returns all of them and the highest completion number, then the last row
+ * written, is kept. All
+ * instruments go through one prepared statement on one connection; instruments the dictionary has
+ * never seen are skipped without a query.
+ */
+@Repository
+public class PriceHistoryRepository {
+
+    // Ordering on both index columns, descending, lets H2 scan the index backwards instead of sorting;
+    // WITH TIES keeps every row of the newest asOf, so ties are broken below without sorting the history
+    private static final String SEEK_SQL = """
+            SELECT p.as_of, p.payload_json, d.encoding, d.data, p.batch_id, b.completion_seq, p.id
+            FROM price_record p
+            JOIN price_batch b ON b.id = p.batch_id
+            LEFT JOIN payload d ON d.id = p.payload_id
+            WHERE p.instrument_key = ?
+              AND p.as_of <= ?
+              AND b.status = 'COMPLETED'
+              AND b.completed_at <= ?
+              AND (b.completion_seq IS NULL OR b.completion_seq <= ?)
+            ORDER BY p.instrument_key DESC, p.as_of DESC
+            FETCH FIRST 1 ROWS WITH TIES
+            """;
+
+    /** Stand in for an absent cutoff, so a single statement serves every combination. */
+    private static final OffsetDateTime NO_CUTOFF = OffsetDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final long NO_SEQ_CUTOFF = Long.MAX_VALUE;
+
+    private final JdbcTemplate jdbc;
+    private final InstrumentDictionary instruments;
+
+    public PriceHistoryRepository(JdbcTemplate jdbc, InstrumentDictionary instruments) {
+        this.jdbc = jdbc;
+        this.instruments = instruments;
+    }
+
+    /**
+     * Latest completed price per instrument with {@code asOf <= asOf}, counting only batches completed
+     * at or before {@code completedBy} and numbered at most {@code completedUpTo}. A null cutoff is not
+     * applied. Batches completed before they were numbered always count. Instruments without such a price
+     * are left out.
+     */
+    public List<LatestPrice> findLastPricesAt(Collection<String> instrumentIds, Instant asOf, Instant completedBy,
+                                              Long completedUpTo) {
+        OffsetDateTime asOfCutoff = toTimestamp(asOf);
+        OffsetDateTime completedCutoff = toTimestamp(completedBy);
+        Map<String, Integer> keys = instruments.existingKeys(instrumentIds);
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbc.execute((Connection con) -> {
+            List<LatestPrice> prices = new ArrayList<>(keys.size());
+            try (PreparedStatement ps = con.prepareStatement(SEEK_SQL)) {
+                ps.setObject(2, asOfCutoff);
+                ps.setObject(3, completedCutoff);
+                ps.setLong(4, completedUpTo != null ? completedUpTo : NO_SEQ_CUTOFF);
+                for (Map.Entry<String, Integer> instrument : keys.entrySet()) {
+                    ps.setInt(1, instrument.getValue());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        LatestPrice best = null;
+                        long bestSeq = -1;
+                        long bestId = -1;
+                        while (rs.next()) {
+                            long seq = rs.getLong(6); // 0 for batches completed before numbering
+                            long id = rs.getLong(7);
+                            if (seq > bestSeq || seq == bestSeq && id > bestId) {
+                                best = new LatestPrice(
+                                        instrument.getKey(),
+                                        rs.getObject(1, OffsetDateTime.class).toInstant(),
+                                        Payload.fromColumns(rs.getString(2), rs.getObject(3, Byte.class), rs.getBytes(4)),
+                                        rs.getString(5));
+                                bestSeq = seq;
+                                bestId = id;
+                            }
+                        }
+                        if (best != null) {
+                            prices.add(best);
+                        }
+                    }
+                }
+            }
+            return prices;
+        });
+    }
+
+    private static OffsetDateTime toTimestamp(Instant instant) {
+        return instant != null ? OffsetDateTime.ofInstant(instant, ZoneOffset.UTC) : NO_CUTOFF;
+    }
+}
@@ -0,0 +1,129 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.dto.BarResponse;
+import com.pricing.pricingengine.ingest.PayloadFields;
+import com.pricing.pricingengine.repository.InstrumentDictionary;
+import com.pricing.pricingengine.repository.PriceFieldRepository;
+import com.pricing.pricingengine.repository.PriceFieldRepository.Ticks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Time-bucketed bars (open, high, low, close, volume, VWAP) from the price and size extracted at ingest.
+ * <p>
+ * Only prices of completed batches count, and only those uploaded while {@code pricing.fields.extract} was
+ * on. Each instrument's ticks are read into primitive arrays and aggregated in one pass; instruments are
+ * aggregated in parallel. Buckets without prices are left out.
+ */
+@Service
+public class BarService {
+
+    // Bucket offsets are kept in nanoseconds
+    private static final Duration MAX_RANGE = Duration.ofNanos(Long.MAX_VALUE);
+
+    private final PriceFieldRepository fieldRepo;
+    private final InstrumentDictionary instruments;
+    private final PriceQueryService queryService;
+    private final PayloadFields fields;
+    private final boolean segments;
+    private final int maxInstruments;
+    private final long maxBuckets;
+    private final long maxRows;
+
+    public BarService(PriceFieldRepository fieldRepo,
+                      InstrumentDictionary instruments,
+                      PriceQueryService queryService,
+                      PayloadFields fields,
+                      @Value("${pricing.storage.mode:database}") String storageMode,
+                      @Value("${pricing.bars.max-instruments:1000}") int maxInstruments,
+                      @Value("${pricing.bars.max-buckets:10000}") long maxBuckets,
+                      @Value("${pricing.bars.max-rows:5000000}") long maxRows) {
+        this.fieldRepo = fieldRepo;
+        this.instruments = instruments;
+        this.queryService = queryService;
+        this.fields = fields;
+        this.segments = storageMode.equals("segment");
+        this.maxInstruments = maxInstruments;
+        this.maxBuckets = maxBuckets;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Bars with {@code from <= start < to}, per instrument in request order, then by start.
+     * Buckets are aligned on {@code from}.
+     */
+    public List<BarResponse> getBars(List<String> instrumentIds, Instant from, Instant to, Duration bucket) {
+        if (!fields.isEnabled()) {
+            throw new IllegalStateException("Bars need pricing.fields.extract=true");
+        }
+        if (segments) {
+            throw new IllegalStateException("Bars are not available with segment storage");
+        }
+        List<String> ids = List.copyOf(new LinkedHashSet<>(instrumentIds));
+        if (ids.isEmpty() || ids.size() > maxInstruments) {
+            throw new IllegalArgumentException("ids must name between 1 and " + maxInstruments + " instruments");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (bucket.isNegative() || bucket.isZero()) {
+            throw new IllegalArgumentException("bucket must be positive");
+        }
+        Duration range = Duration.between(from, to);
+        if (range.compareTo(MAX_RANGE) > 0) {
+            throw new IllegalArgumentException("Range is too long");
+        }
+        long rangeNanos = range.toNanos();
+        long bucketNanos = bucket.compareTo(range) > 0 ? rangeNanos : bucket.toNanos();
+        if ((rangeNanos - 1) / bucketNanos + 1 > maxBuckets) {
+            throw new IllegalArgumentException("Range spans more than " + maxBuckets + " buckets");
+        }
+
+        Map<String, Ticks> ticks = fieldRepo.findTicks(instruments.existingKeys(ids), from, to,
+                queryService.readableCompletionSeq(), maxRows);
+        return IntStream.range(0, ids.size()).parallel()
+                .mapToObj(i -> {
+                    Ticks t = ticks.get(ids.get(i));
+                    return t != null ? aggregate(ids.get(i), t, from, bucketNanos) : List.<BarResponse>of();
+                })
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    private static List<BarResponse> aggregate(String instrumentId, Ticks ticks, Instant from, long bucketNanos) {
+        long[] offsets = ticks.offsets();
+        double[] prices = ticks.prices();
+        double[] sizes = ticks.sizes();
+        List<BarResponse> bars = new ArrayList<>();
+        int i = 0;
+        while (i < ticks.count()) {
+            long index = offsets[i] / bucketNanos;
+            double open = prices[i];
+            double high = open;
+            double low = open;
+            double volume = 0;
+            double notional = 0;
+            int first = i;
+            for (; i < ticks.count() && offsets[i] / bucketNanos == index; i++) {
+                double price = prices[i];
+                high = Math.max(high, price);
+                low = Math.min(low, price);
+                if (!Double.isNaN(sizes[i])) {
+                    volume += sizes[i];
+                    notional += price * sizes[i];
+                }
+            }
+            bars.add(new BarResponse(instrumentId, from.plusNanos(index * bucketNanos), open, high, low,
+                    prices[i - 1], volume, volume != 0 ? notional / volume : null, i - first));
+        }
+        return bars;
+    }
+}
@@ -0,0 +1,6 @@
+package com.pricing.pricingengine.service;
+
+/**
+ * Published inside the cancelling transaction; the purge starts after commit.
+ */
+public record BatchCancelledEvent(String batchId) {}
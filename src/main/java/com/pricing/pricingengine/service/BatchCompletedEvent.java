@@ -0,0 +1,8 @@
+package com.pricing.pricingengine.service;
+
+/**
+ * Published inside the completing transaction; listeners run after commit.
+ *
+ * @param completionSeq the batch's number from {@code CompletionSequence}
+ */
+public record BatchCompletedEvent(String batchId, long completionSeq) {}
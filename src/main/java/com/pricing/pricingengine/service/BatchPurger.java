@@ -0,0 +1,162 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.domain.BatchEntity;
+import com.pricing.pricingengine.domain.BatchStatus;
+import com.pricing.pricingengine.dto.PurgeStatus;
+import com.pricing.pricingengine.repository.BatchChunkRepository;
+import com.pricing.pricingengine.repository.BatchRepository;
+import com.pricing.pricingengine.storage.PriceStorage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes the rows of cancelled batches in the background.
+ * <p>
+ * Cancellation only flips the status, which already hides the rows from readers. The purger then
+ * removes them in chunks through the {@link PriceStorage} (set-based DELETEs, or one file drop for
+ * segments), each in its own short transaction and outside the batch lock, and finally stamps
+ * {@code purgedAt}. Batches left unpurged by a restart are picked up again at startup.
+ * <p>
+ * Progress is kept in memory for {@code pricing.purge.status-retention} after a purge finishes; after that
+ * {@link #status} answers from the batch row alone, without row counts or timings.
+ */
+@Component
+public class BatchPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchPurger.class);
+
+    private final BatchRepository batchRepo;
+    private final PriceStorage storage;
+    private final BatchChunkRepository chunkRepo;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+    private final Duration statusRetention;
+
+    private final ExecutorService executor;
+
+    private final ConcurrentHashMap<String, Purge> purges = new ConcurrentHashMap<>();
+
+    public BatchPurger(BatchRepository batchRepo,
+                       PriceStorage storage,
+                       BatchChunkRepository chunkRepo,
+                       TransactionTemplate tx,
+                       @Value("${pricing.purge.chunk-size:10000}") int chunkSize,
+                       @Value("${pricing.purge.status-retention:1h}") Duration statusRetention,
+                       WorkerThreads workerThreads) {
+        this.batchRepo = batchRepo;
+        this.storage = storage;
+        this.chunkRepo = chunkRepo;
+        this.tx = tx;
+        this.chunkSize = chunkSize;
+        this.statusRetention = statusRetention;
+        this.executor = Executors.newSingleThreadExecutor(workerThreads.factory("batch-purger-"));
+    }
+
+    @TransactionalEventListener
+    public void onBatchCancelled(BatchCancelledEvent event) {
+        schedule(event.batchId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingPurges() {
+        batchRepo.findByStatusAndPurgedAtIsNull(BatchStatus.CANCELLED)
+                .forEach(batch -> schedule(batch.getId()));
+    }
+
+    /**
+     * Progress of the purge of a cancelled batch; empty if the batch does not exist or was not cancelled.
+     */
+    public Optional<PurgeStatus> status(String batchId) {
+        evictFinished();
+        Purge purge = purges.get(batchId);
+        if (purge != null) {
+            return Optional.of(purge.status());
+        }
+        return batchRepo.findById(batchId)
+                .filter(batch -> batch.getStatus() == BatchStatus.CANCELLED)
+                .map(batch -> new PurgeStatus(batchId,
+                        batch.getPurgedAt() != null ? "PURGED" : "PENDING",
+                        0, null, batch.getPurgedAt(), null));
+    }
+
+    /**
+     * Queues a purge unless one is already queued, running or done; failed purges are retried.
+     */
+    private void schedule(String batchId) {
+        evictFinished();
+        Purge purge = new Purge(batchId);
+        Purge current = purges.merge(batchId, purge,
+                (existing, fresh) -> "FAILED".equals(existing.state) ? fresh : existing);
+        if (current == purge) {
+            executor.execute(() -> run(purge));
+        }
+    }
+
+    /**
+     * Forgets purges finished longer than the retention ago; their batch rows still tell whether they are done.
+     */
+    private void evictFinished() {
+        Instant cutoff = Instant.now().minus(statusRetention);
+        purges.values().removeIf(purge -> purge.finishedAt != null && purge.finishedAt.isBefore(cutoff));
+    }
+
+    private void run(Purge purge) {
+        purge.startedAt = Instant.now();
+        purge.state = "RUNNING";
+        try {
+            long deleted;
+            do {
+                deleted = tx.execute(status -> storage.purgeChunk(purge.batchId, chunkSize));
+                purge.rowsDeleted.addAndGet(deleted);
+            } while (deleted > 0);
+
+            tx.executeWithoutResult(status -> {
+                chunkRepo.deleteByBatch(purge.batchId);
+                batchRepo.findById(purge.batchId).ifPresent(BatchEntity::markPurged);
+            });
+
+            purge.state = "PURGED";
+            log.info("Batch {} purged, {} rows deleted", purge.batchId, purge.rowsDeleted.get());
+        } catch (RuntimeException e) {
+            purge.failure = e.getMessage();
+            purge.state = "FAILED";
+            log.error("Purge of batch {} failed after {} rows", purge.batchId, purge.rowsDeleted.get(), e);
+        } finally {
+            purge.finishedAt = Instant.now();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Purge {
+        final String batchId;
+        final AtomicLong rowsDeleted = new AtomicLong();
+        volatile String state = "PENDING";
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile String failure;
+
+        Purge(String batchId) {
+            this.batchId = batchId;
+        }
+
+        PurgeStatus status() {
+            return new PurgeStatus(batchId, state, rowsDeleted.get(), startedAt, finishedAt, failure);
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package com.pricing.pricingengine.service;
 
+import com.pricing.pricingengine.domain.BatchChunkEntity;
 import com.pricing.pricingengine.domain.BatchEntity;
 import com.pricing.pricingengine.domain.BatchStatus;
-import com.pricing.pricingengine.domain.PriceEntity;
+import com.pricing.pricingengine.dto.ChunkAck;
 import com.pricing.pricingengine.dto.PriceRecord;
 import com.pricing.pricingengine.lockmanager.BatchLockManager;
+import com.pricing.pricingengine.repository.BatchChunkRepository;
 import com.pricing.pricingengine.repository.BatchRepository;
-import com.pricing.pricingengine.repository.PriceRepository;
+import com.pricing.pricingengine.repository.CompletionSequence;
+import com.pricing.pricingengine.repository.InstrumentDictionary;
+import com.pricing.pricingengine.repository.PayloadStore;
+import com.pricing.pricingengine.storage.PriceStorage;
+import io.micrometer.core.instrument.*;
 import org.slf4j.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
-import java.util.concurrent.locks.Lock;
+import java.util.Optional;
 
 @Service
 public class BatchService {
@@ -20,15 +34,60 @@ public class BatchService {
     private static final Logger log = LoggerFactory.getLogger(BatchService.class);
 
     private final BatchRepository batchRepo;
-    private final PriceRepository priceRepo;
+    private final BatchChunkRepository chunkRepo;
+    private final PriceStorage storage;
+    private final InstrumentDictionary instruments;
+    private final PayloadStore payloads;
+    private final IngestAdmission admission;
+    private final CompletionSequence completionSequence;
     private final BatchLockManager lockManager;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+
+    private final Counter rowsIngested;
+    private final Timer chunkPersist;
+    private final Timer completeTimer;
+    private final Timer cancelTimer;
 
     public BatchService(BatchRepository batchRepo,
-                        PriceRepository priceRepo,
-                        BatchLockManager lockManager) {
+                        BatchChunkRepository chunkRepo,
+                        PriceStorage storage,
+                        InstrumentDictionary instruments,
+                        PayloadStore payloads,
+                        IngestAdmission admission,
+                        CompletionSequence completionSequence,
+                        BatchLockManager lockManager,
+                        ApplicationEventPublisher events,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry registry) {
         this.batchRepo = batchRepo;
-        this.priceRepo = priceRepo;
+        this.chunkRepo = chunkRepo;
+        this.storage = storage;
+        this.instruments = instruments;
+        this.payloads = payloads;
+        this.admission = admission;
+        this.completionSequence = completionSequence;
         this.lockManager = lockManager;
+        this.events = events;
+        this.tx = new TransactionTemplate(transactionManager);
+
+        // Rows/sec is the rate of this counter
+        this.rowsIngested = Counter.builder("pricing.ingest.rows")
+                .description("Price rows written to open batches")
+                .register(registry);
+        this.chunkPersist = Timer.builder("pricing.ingest.chunk.persist")
+                .description("Writing one admitted upload chunk, lock wait and commit included")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        this.completeTimer = Timer.builder("pricing.batch.complete").register(registry);
+        this.cancelTimer = Timer.builder("pricing.batch.cancel").register(registry);
+        // Evaluated on scrape only
+        Gauge.builder("pricing.batches.active", batchRepo, repo -> repo.countByStatus(BatchStatus.STARTED))
+                .description("Batches started and not yet completed or cancelled")
+                .strongReference(true)
+                .register(registry);
     }
 
     @Transactional
@@ -40,54 +99,172 @@ public class BatchService {
         log.info("Batch {} started", batchId);
     }
 
-    @Transactional
+    /**
+     * Starts the batch unless it already exists. Producers splitting one batch across
+     * several uploads may race here; the loser of the insert simply joins the batch.
+     */
+    public void startBatchIfAbsent(String batchId) {
+        if (batchRepo.existsById(batchId)) {
+            return;
+        }
+        try {
+            batchRepo.saveAndFlush(new BatchEntity(batchId));
+            log.info("Batch {} started", batchId);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Batch {} started concurrently", batchId);
+        }
+    }
+
+    /**
+     * Chunks of the same batch insert concurrently: uploads share the batch lock.
+     * <p>
+     * Instrument keys and payload ids are resolved first, once the batch is known to be open, and outside the
+     * upload transaction, so new dictionary entries and payloads never hold a second pooled connection while
+     * this upload holds its own. All of it runs in one {@link IngestAdmission} write slot.
+     */
     public void uploadPrices(String batchId, List<PriceRecord> records) {
-        Lock lock = lockManager.lock(batchId);
+        admission.acquire();
+        Timer.Sample sample = Timer.start(); // admission wait is pricing.admission.wait
         try {
-            BatchEntity batch = batchRepo.findById(batchId)
-                    .orElseThrow(() -> new IllegalStateException("Batch not found"));
+            // Checked again under the lock; this keeps uploads to unknown or closed batches out of the dictionary
+            startedBatch(batchId);
+            int[] instrumentKeys = instruments.keysFor(records);
+            long[] payloadIds = payloads.idsFor(records);
+
+            tx.executeWithoutResult(status -> {
+                lockManager.lockShared(batchId);
+
+                BatchEntity batch = startedBatch(batchId);
+
+                storage.write(batch, records, instrumentKeys, payloadIds);
+                countAfterCommit(records.size());
+            });
+        } finally {
+            admission.release();
+        }
+
+        sample.stop(chunkPersist);
+        log.info("Uploaded {} prices for batch {}", records.size(), batchId);
+    }
+
+    private BatchEntity startedBatch(String batchId) {
+        BatchEntity batch = batchRepo.findById(batchId)
+                .orElseThrow(() -> new IllegalStateException("Batch not found"));
+
+        if (batch.getStatus() != BatchStatus.STARTED) {
+            throw new IllegalStateException("Batch not STARTED");
+        }
+        return batch;
+    }
 
-            if (batch.getStatus() != BatchStatus.STARTED) {
-                throw new IllegalStateException("Batch not STARTED");
+    /**
+     * Counts rows once the surrounding transaction commits, so rolled back uploads are not counted. This is
+     * also correct when the caller's transaction is the one that commits.
+     */
+    private void countAfterCommit(int rows) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rowsIngested.increment(rows);
             }
+        });
+    }
 
-            List<PriceEntity> entities = records.stream()
-                    .map(r -> new PriceEntity(r.instrumentId(), r.asOf(), r.payloadJson(), batch))
-                    .toList();
+    /**
+     * Idempotent upload of chunk {@code seq}: the chunk's marker row commits together with its prices, so a
+     * retry of a committed chunk is acknowledged without writing anything. The marker is inserted before the
+     * prices, so a concurrent retry of the same chunk waits on it and then sees it committed.
+     *
+     * @throws IllegalStateException if the chunk was committed with another checksum
+     */
+    public ChunkAck uploadChunk(String batchId, int seq, String checksum, List<PriceRecord> records) {
+        if (seq < 0) {
+            throw new IllegalArgumentException("Chunk sequence must not be negative");
+        }
+        Optional<ChunkAck> committed = committedChunk(batchId, seq, checksum);
+        if (committed.isPresent()) {
+            return committed.get();
+        }
+
+        admission.acquire();
+        Timer.Sample sample = Timer.start(); // admission wait is pricing.admission.wait
+        try {
+            // Checked again under the lock; this keeps uploads to unknown or closed batches out of the dictionary
+            startedBatch(batchId);
+            int[] instrumentKeys = instruments.keysFor(records);
+            long[] payloadIds = payloads.idsFor(records);
+            tx.executeWithoutResult(status -> {
+                lockManager.lockShared(batchId);
 
-            priceRepo.saveAll(entities);
-            priceRepo.flush();
+                BatchEntity batch = startedBatch(batchId);
 
-            log.info("Uploaded {} prices for batch {}", records.size(), batchId);
+                chunkRepo.insert(batchId, seq, checksum, records.size(), Instant.now());
+                storage.write(batch, records, instrumentKeys, payloadIds);
+                countAfterCommit(records.size());
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race against a retry of the same chunk
+            return committedChunk(batchId, seq, checksum).orElseThrow(() -> e);
         } finally {
-            lockManager.unlock(batchId, lock);
+            admission.release();
         }
+
+        sample.stop(chunkPersist);
+        log.info("Uploaded chunk {} of batch {}: {} prices", seq, batchId, records.size());
+        return new ChunkAck(batchId, seq, checksum, records.size(), false);
+    }
+
+    public List<BatchChunkEntity> committedChunks(String batchId) {
+        if (!batchRepo.existsById(batchId)) {
+            throw new IllegalStateException("Batch not found");
+        }
+        return chunkRepo.findByBatchIdOrderBySeq(batchId);
+    }
+
+    private Optional<ChunkAck> committedChunk(String batchId, int seq, String checksum) {
+        return chunkRepo.findById(new BatchChunkEntity.Key(batchId, seq)).map(chunk -> {
+            if (!chunk.getChecksum().equals(checksum)) {
+                throw new IllegalStateException("Chunk " + seq + " of batch " + batchId
+                        + " was already committed with checksum " + chunk.getChecksum());
+            }
+            return new ChunkAck(batchId, seq, checksum, chunk.getRowCount(), true);
+        });
     }
 
+    /**
+     * Waits for in-flight uploads to commit, then completes; later uploads see COMPLETED.
+     */
     @Transactional
     public void completeBatch(String batchId) {
-        Lock lock = lockManager.lock(batchId);
-        try {
-            BatchEntity batch = batchRepo.findById(batchId)
-                    .orElseThrow(() -> new IllegalStateException("Batch not found"));
+        Timer.Sample sample = Timer.start();
+        lockManager.lockExclusive(batchId);
 
-            batch.complete();
-            log.info("Batch {} completed", batchId);
-        } finally {
-            lockManager.unlock(batchId, lock);
-        }
+        BatchEntity batch = batchRepo.findById(batchId)
+                .orElseThrow(() -> new IllegalStateException("Batch not found"));
+
+        batch.complete();
+        // Same transaction as the status flip: latest_price never shows a partial batch
+        int changed = storage.publishLatest(batch);
+        // Last step: the sequence row stays locked until commit, so sequence order is commit order
+        long completionSeq = completionSequence.next();
+        batch.recordCompletionSeq(completionSeq);
+        // Snapshot is refreshed only once this transaction commits
+        events.publishEvent(new BatchCompletedEvent(batchId, completionSeq));
+        sample.stop(completeTimer);
+        log.info("Batch {} completed, {} latest prices changed", batchId, changed);
     }
 
     @Transactional
     public void cancelBatch(String batchId) {
-        Lock lock = lockManager.lock(batchId);
-        try {
-            BatchEntity batch = batchRepo.findById(batchId).orElseThrow();
-            batch.cancel();
-            priceRepo.deleteByBatch(batch);
-            log.warn("Batch {} cancelled", batchId);
-        } finally {
-            lockManager.unlock(batchId, lock);
-        }
+        Timer.Sample sample = Timer.start();
+        lockManager.lockExclusive(batchId);
+
+        BatchEntity batch = batchRepo.findById(batchId)
+                .orElseThrow(() -> new IllegalStateException("Batch not found"));
+        // The status flip alone hides the rows; BatchPurger deletes them after commit
+        batch.cancel();
+        events.publishEvent(new BatchCancelledEvent(batchId));
+        sample.stop(cancelTimer);
+        log.warn("Batch {} cancelled", batchId);
     }
 }
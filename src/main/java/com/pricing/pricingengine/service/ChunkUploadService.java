@@ -0,0 +1,81 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.domain.BatchChunkEntity;
+import com.pricing.pricingengine.dto.BatchChunksResponse;
+import com.pricing.pricingengine.dto.ChunkAck;
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.ingest.CompressedInput;
+import com.pricing.pricingengine.ingest.PriceCsvReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Resumable uploads: a producer splits a large file into numbered chunks and sends each with the CRC32C of
+ * its bytes as sent (compressed or not). Every chunk is persisted atomically and at most once, so after a
+ * failure the producer reads the committed-chunk map and sends only what is missing.
+ */
+@Service
+public class ChunkUploadService {
+
+    private final BatchService batchService;
+    private final int maxRows;
+
+    public ChunkUploadService(BatchService batchService,
+                              @Value("${pricing.upload.chunked.max-rows:500000}") int maxRows) {
+        this.batchService = batchService;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * @param checksum CRC32C of the body in hex
+     * @throws IllegalArgumentException if the body does not match the checksum, is malformed or too large
+     */
+    public ChunkAck upload(String batchId, int seq, String checksum, InputStream body) throws IOException {
+        String expected = checksum.trim().toLowerCase(Locale.ROOT);
+        CheckedInputStream checked = new CheckedInputStream(body, new CRC32C());
+
+        List<PriceRecord> records = new ArrayList<>();
+        try (PriceCsvReader reader = new PriceCsvReader(CompressedInput.open(checked))) {
+            PriceRecord record;
+            while ((record = reader.next()) != null) {
+                if (records.size() == maxRows) {
+                    throw new IllegalArgumentException("Chunk " + seq + " has more than " + maxRows + " rows");
+                }
+                records.add(record);
+            }
+            checked.transferTo(OutputStream.nullOutputStream()); // anything after the last gzip member
+        }
+
+        String actual = HexFormat.of().toHexDigits((int) checked.getChecksum().getValue());
+        if (!actual.equals(expected)) {
+            throw new IllegalArgumentException("Checksum mismatch for chunk " + seq + ": expected " + expected
+                    + ", received data has " + actual);
+        }
+        return batchService.uploadChunk(batchId, seq, actual, records);
+    }
+
+    public BatchChunksResponse chunks(String batchId) {
+        List<BatchChunkEntity> committed = batchService.committedChunks(batchId);
+        List<BatchChunksResponse.Chunk> chunks = new ArrayList<>(committed.size());
+        long rows = 0;
+        int firstMissing = 0;
+        for (BatchChunkEntity chunk : committed) {
+            chunks.add(new BatchChunksResponse.Chunk(chunk.getSeq(), chunk.getChecksum(), chunk.getRowCount()));
+            rows += chunk.getRowCount();
+            if (chunk.getSeq() == firstMissing) { // sorted by seq
+                firstMissing++;
+            }
+        }
+        return new BatchChunksResponse(batchId, chunks.size(), rows, firstMissing, chunks);
+    }
+}
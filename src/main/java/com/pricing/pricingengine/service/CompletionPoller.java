@@ -0,0 +1,59 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.repository.CompletionSequence;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * In database lock mode, where several nodes share batches, polls the {@link CompletionSequence} every
+ * {@code interval} and has the {@link LatestPriceStore} merge batches completed on other nodes. The merge
+ * bumps the generation and announces the changed prices, so the last price cache and the price stream
+ * follow them as they do local completions, at most {@code interval} later.
+ */
+@Component
+@ConditionalOnProperty(name = "pricing.lock.mode", havingValue = "database")
+public class CompletionPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(CompletionPoller.class);
+
+    private final LatestPriceStore store;
+    private final Duration interval;
+
+    private final ScheduledExecutorService scheduler;
+
+    public CompletionPoller(LatestPriceStore store,
+                            @Value("${pricing.cluster.poll-interval:1s}") Duration interval,
+                            WorkerThreads workerThreads) {
+        this.store = store;
+        this.interval = interval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(workerThreads.factory("completion-poller-"));
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler.scheduleWithFixedDelay(this::poll, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        try {
+            int merged = store.catchUp();
+            if (merged > 0) {
+                log.debug("Merged {} batches completed on other nodes", merged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Polling for batches completed on other nodes failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
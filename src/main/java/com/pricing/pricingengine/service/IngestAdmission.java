@@ -0,0 +1,253 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.*;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for uploads, so that producers cannot starve price queries of connections.
+ * <p>
+ * Chunk writes hold a slot for as long as they use the database; there are as many slots as pooled
+ * connections minus {@code pricing.admission.reserved-connections}, so that many connections always remain
+ * for queries. Uploads are turned away only at the door: while {@code max-queue} writers are already waiting,
+ * or when no slot frees up within {@code max-wait}. Once admitted, each chunk write waits in line for a slot
+ * for as long as it takes, so an upload slows down under load but is never cut off half way.
+ * <p>
+ * Each producer, identified by its client address, has a token bucket of request bytes, refilled at
+ * {@code producer.bytes-per-second} up to {@code producer.burst-bytes}. An upload is admitted while the bucket
+ * is not empty and then charged its full size, which may leave the bucket in debt: the producer's next upload
+ * waits until the debt is paid off. Charging up front keeps an admitted upload from ever being cut off half way.
+ * An upload sent without a length is admitted on the same terms and {@link #charge charged} what it turned out
+ * to be once read.
+ * At most {@code producer.max-producers} buckets are kept, least recently used first out; an evicted producer
+ * starts over with a full bucket.
+ */
+@Component
+public class IngestAdmission {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestAdmission.class);
+
+    private static final Duration QUEUE_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final Semaphore writeSlots;
+    private final int maxWrites;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final double bytesPerSecond;
+    private final double burstBytes;
+    private final Map<String, TokenBucket> buckets;
+    private final ReentrantLock bucketsLock = new ReentrantLock();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Counter rejectedRate;
+    private final Counter rejectedQueue;
+    private final Counter rejectedTimeout;
+    private final Timer slotWait;
+
+    public IngestAdmission(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                           @Value("${pricing.admission.reserved-connections:2}") int reservedConnections,
+                           @Value("${pricing.admission.max-queue:64}") int maxQueue,
+                           @Value("${pricing.admission.max-wait:30s}") Duration maxWait,
+                           @Value("${pricing.admission.producer.bytes-per-second:0}") long bytesPerSecond,
+                           @Value("${pricing.admission.producer.burst-bytes:64MB}") DataSize burstBytes,
+                           @Value("${pricing.admission.producer.max-producers:10000}") int maxProducers,
+                           MeterRegistry registry) {
+        this.maxWrites = poolSize - reservedConnections;
+        if (maxWrites < 1) {
+            throw new IllegalArgumentException("pricing.admission.reserved-connections must leave at least one of the "
+                    + poolSize + " pooled connections for uploads");
+        }
+        this.writeSlots = new Semaphore(maxWrites, true);
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.bytesPerSecond = bytesPerSecond;
+        this.burstBytes = burstBytes.toBytes();
+        this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxProducers;
+            }
+        };
+
+        Gauge.builder("pricing.admission.queued", queued, AtomicInteger::get)
+                .description("Uploads at the door and chunk writes waiting for a write slot")
+                .register(registry);
+        Gauge.builder("pricing.admission.writes", writeSlots, slots -> maxWrites - slots.availablePermits())
+                .description("Upload chunk writes holding a write slot")
+                .register(registry);
+        // Tagged by reason only: producer ids are unbounded
+        this.rejectedRate = rejected(registry, "rate");
+        this.rejectedQueue = rejected(registry, "queue");
+        this.rejectedTimeout = rejected(registry, "timeout");
+        this.slotWait = Timer.builder("pricing.admission.wait")
+                .description("Waiting for a write slot")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(maxWait)
+                .register(registry);
+        log.info("Ingest admission: {} write slots, {} connections reserved for queries", maxWrites, reservedConnections);
+    }
+
+    /**
+     * Admits an upload of {@code bytes} from {@code producer}, charging the producer's bucket, once a write
+     * slot is free. The slot is not held: the upload's chunk writes {@link #acquire()} their own.
+     *
+     * @param bytes upload size; negative when unknown, then charged by {@link #charge} once read
+     * @throws AdmissionRejectedException if the producer is over its rate, the write queue is full or no slot
+     *                                    frees up within {@code max-wait}
+     */
+    public void admit(String producer, long bytes) {
+        if (queued.get() >= maxQueue) {
+            rejectedQueue.increment();
+            throw new AdmissionRejectedException("Too many uploads waiting, retry later", QUEUE_RETRY_AFTER);
+        }
+        long charged = Math.max(0, bytes);
+        TokenBucket bucket = null;
+        if (bytesPerSecond > 0) {
+            long now = System.nanoTime();
+            bucket = bucket(producer, now);
+            long waitNanos = bucket.take(charged, now);
+            if (waitNanos > 0) {
+                rejectedRate.increment();
+                throw new AdmissionRejectedException("Producer " + producer + " is over its upload rate",
+                        Duration.ofNanos(waitNanos));
+            }
+        }
+        if (!awaitSlot(maxWait.toNanos())) {
+            if (bucket != null) {
+                bucket.refund(charged);
+            }
+            rejectedTimeout.increment();
+            throw new AdmissionRejectedException("No write slot within " + maxWait + ", retry later", QUEUE_RETRY_AFTER);
+        }
+        writeSlots.release();
+    }
+
+    /**
+     * Charges {@code producer} for an upload admitted without a known size, once its bytes have been read.
+     * This may leave the bucket in debt, which the producer's next upload waits out.
+     */
+    public void charge(String producer, long bytes) {
+        if (bytesPerSecond > 0 && bytes > 0) {
+            long now = System.nanoTime();
+            bucket(producer, now).charge(bytes, now);
+        }
+    }
+
+    /**
+     * Waits for a write slot, however long it takes; release it with {@link #release()}. Only admitted
+     * uploads get here, so waiting is the backpressure that paces them.
+     */
+    public void acquire() {
+        awaitSlot(Long.MAX_VALUE);
+    }
+
+    public void release() {
+        writeSlots.release();
+    }
+
+    private boolean awaitSlot(long timeoutNanos) {
+        queued.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return writeSlots.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a write slot", e);
+        } finally {
+            queued.decrementAndGet();
+            slotWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private TokenBucket bucket(String producer, long now) {
+        bucketsLock.lock();
+        try {
+            return buckets.computeIfAbsent(producer, p -> new TokenBucket(now));
+        } finally {
+            bucketsLock.unlock();
+        }
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason) {
+        return Counter.builder("pricing.admission.rejected")
+                .description("Uploads turned away by admission control")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * Bytes a producer may still send; negative while in debt.
+     */
+    private final class TokenBucket {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(long now) {
+            this.tokens = burstBytes;
+            this.refilledAt = now;
+        }
+
+        /**
+         * @return 0 if taken, otherwise nanoseconds until the bucket is no longer empty
+         */
+        long take(long bytes, long now) {
+            lock.lock();
+            try {
+                refill(now);
+                if (tokens <= 0) {
+                    return (long) (-tokens / bytesPerSecond * 1e9) + 1;
+                }
+                tokens -= bytes;
+                return 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Takes {@code bytes} whatever the balance, for an upload already through the door.
+         */
+        void charge(long bytes, long now) {
+            lock.lock();
+            try {
+                refill(now);
+                tokens -= bytes;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Gives back the charge of an upload that was turned away after all.
+         */
+        void refund(long bytes) {
+            lock.lock();
+            try {
+                tokens = Math.min(burstBytes, tokens + bytes);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) { // callers may read the clock in a different order than they get the lock
+                tokens = Math.min(burstBytes, tokens + (now - refilledAt) / 1e9 * bytesPerSecond);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.dto.LastPriceResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Result cache in front of {@link PriceQueryService#getLastPrices(Set, Instant, Instant)}, keyed by the
+ * normalized query (sorted instrument ids plus cutoffs).
+ * <p>
+ * Entries belong to the {@link LatestPriceStore#generation() generation} they were computed in; the
+ * cache is emptied as soon as the generation moves, i.e. when a completed batch has been merged. Identical
+ * queries missing at the same time share one computation. The ETag is the generation plus a hash of the
+ * query, so a client repeating a query can be answered 304 without touching the cache at all.
+ * <p>
+ * Generations are counted from zero on every boot and each node merges only the batches it completed itself,
+ * so the ETag also carries a random epoch drawn at startup: after a restart, or on another node, a client's
+ * ETag never matches and the query is answered in full.
+ */
+@Component
+public class LastPriceCache {
+
+    private final PriceQueryService queryService;
+    private final LatestPriceStore store;
+    private final int maxEntries;
+    private final String epoch = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Least recently used first; guarded by {@code lock}. */
+    private final LinkedHashMap<Query, List<LastPriceResponse>> entries;
+    private long entriesGeneration = -1; // guarded by lock
+
+    private final ConcurrentHashMap<Flight, CompletableFuture<List<LastPriceResponse>>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter notModified;
+
+    public LastPriceCache(PriceQueryService queryService,
+                          LatestPriceStore store,
+                          MeterRegistry registry,
+                          @Value("${pricing.query.cache.max-entries:1024}") int maxEntries) {
+        this.queryService = queryService;
+        this.store = store;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Query, List<LastPriceResponse>> eldest) {
+                return size() > LastPriceCache.this.maxEntries;
+            }
+        };
+        this.hits = counter(registry, "hit");
+        this.misses = counter(registry, "miss");
+        this.coalesced = counter(registry, "coalesced");
+        this.notModified = counter(registry, "not-modified");
+    }
+
+    /**
+     * @param prices null when {@code ifNoneMatch} already names the current version
+     */
+    public record Result(String etag, List<LastPriceResponse> prices) {
+
+        public boolean notModified() {
+            return prices == null;
+        }
+    }
+
+    public Result lookup(Set<String> instrumentIds, Instant asOf, Instant visibleAt, String ifNoneMatch) {
+        Query query = Query.of(instrumentIds, asOf, visibleAt);
+        // Read before computing: whatever is computed afterwards is at least this fresh
+        long generation = store.generation();
+        String etag = query.etag(epoch, generation);
+        if (matches(ifNoneMatch, etag)) {
+            notModified.increment();
+            return new Result(etag, null);
+        }
+        return new Result(etag, get(query, generation));
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<LastPriceResponse> get(Query query, long generation) {
+        lock.lock();
+        try {
+            if (generation > entriesGeneration) {
+                entries.clear();
+                entriesGeneration = generation;
+            }
+            List<LastPriceResponse> cached = generation == entriesGeneration ? entries.get(query) : null;
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Flight flight = new Flight(query, generation);
+        CompletableFuture<List<LastPriceResponse>> mine = new CompletableFuture<>();
+        CompletableFuture<List<LastPriceResponse>> running = inFlight.putIfAbsent(flight, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        misses.increment();
+        try {
+            List<LastPriceResponse> prices = queryService.getLastPrices(query.instrumentIds(), query.asOf(), query.visibleAt())
+                    .stream()
+                    .map(LastPriceResponse::from)
+                    .toList();
+            mine.complete(prices);
+            put(query, generation, prices);
+            return prices;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flight, mine);
+        }
+    }
+
+    private void put(Query query, long generation, List<LastPriceResponse> prices) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (generation == entriesGeneration) {
+                entries.put(query, prices);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static List<LastPriceResponse> await(CompletableFuture<List<LastPriceResponse>> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Handles the list form and weak validators of If-None-Match.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("pricing.query.cache")
+                .description("Last price queries by cache outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private record Flight(Query query, long generation) {}
+
+    /**
+     * Normalized query; the set order a client happened to send does not matter.
+     */
+    private record Query(Set<String> instrumentIds, Instant asOf, Instant visibleAt, long hash) {
+
+        static Query of(Set<String> instrumentIds, Instant asOf, Instant visibleAt) {
+            String[] sorted = instrumentIds.stream().filter(Objects::nonNull).sorted().toArray(String[]::new);
+            // 64-bit FNV-1a over the sorted ids and cutoffs; only the ETag relies on it, equality does not
+            long hash = 0xcbf29ce484222325L;
+            for (String id : sorted) {
+                hash = fnv(hash, id);
+            }
+            hash = fnv(hash, String.valueOf(asOf));
+            hash = fnv(hash, String.valueOf(visibleAt));
+            return new Query(Set.of(sorted), asOf, visibleAt, hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash);
+        }
+
+        String etag(String epoch, long generation) {
+            return "\"" + epoch + "-" + generation + "-" + Long.toHexString(hash) + "\"";
+        }
+
+        private static long fnv(long hash, String value) {
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return (hash ^ 0xff) * 0x100000001b3L; // separator, so {"ab","c"} and {"a","bc"} differ
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.pricing.pricingengine.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.dto.LastPriceResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Writes last prices as NDJSON, one {@link LastPriceResponse} per line, for requests too large for one
+ * JSON array.
+ * <p>
+ * Without cutoffs every line comes from one view of the in-memory snapshot. With cutoffs the instrument set is
+ * resolved {@code chunkSize} instruments at a time, up to {@code parallelism} chunks at once, and each chunk is
+ * written as soon as it is resolved, in whatever order chunks finish. Memory held per request is bounded by
+ * {@code chunkSize * parallelism} prices, whatever the size of the request.
+ * <p>
+ * Chunks are resolved in transactions of their own, at different moments, so all of them are pinned to the
+ * completion number readable when the request starts: a batch completing meanwhile is left out of every chunk,
+ * never shown by some and not others.
+ */
+@Service
+public class LastPriceStreamer {
+
+    private static final Logger log = LoggerFactory.getLogger(LastPriceStreamer.class);
+
+    private final PriceQueryService queryService;
+    private final LatestPriceStore store;
+    private final ObjectWriter lineWriter;
+    private final int chunkSize;
+    private final int parallelism;
+
+    private final ExecutorService chunkExecutor;
+
+    public LastPriceStreamer(PriceQueryService queryService,
+                             LatestPriceStore store,
+                             ObjectMapper mapper,
+                             @Value("${pricing.query.ndjson.chunk-size:1000}") int chunkSize,
+                             @Value("${pricing.query.ndjson.parallelism:2}") int parallelism,
+                             WorkerThreads workerThreads) {
+        this.queryService = queryService;
+        this.store = store;
+        // Flushing is left to the servlet buffer, not done per line
+        this.lineWriter = mapper.writerFor(LastPriceResponse.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.chunkExecutor = parallelism > 1
+                ? Executors.newFixedThreadPool(parallelism, workerThreads.factory("last-price-chunk-"))
+                : null;
+    }
+
+    /**
+     * @return number of prices written
+     */
+    public long write(Set<String> instrumentIds, Instant asOf, Instant visibleAt, OutputStream out) throws IOException {
+        try (JsonGenerator generator = lineWriter.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long written = asOf == null && visibleAt == null
+                    ? writeLatest(instrumentIds, generator)
+                    : writeChunks(instrumentIds, asOf, visibleAt, queryService.readableCompletionSeq(), generator);
+            if (written > 0) {
+                generator.writeRaw('\n'); // the separator only goes between lines
+            }
+            generator.flush();
+            log.debug("Streamed {} of {} requested last prices", written, instrumentIds.size());
+            return written;
+        }
+    }
+
+    private long writeLatest(Set<String> instrumentIds, JsonGenerator generator) throws IOException {
+        Map<String, LatestPrice> prices = store.view().prices();
+        long written = 0;
+        for (String id : instrumentIds) {
+            LatestPrice price = prices.get(id);
+            if (price != null) {
+                writeLine(generator, price);
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private long writeChunks(Set<String> instrumentIds, Instant asOf, Instant visibleAt, long completedUpTo,
+                             JsonGenerator generator) throws IOException {
+        Iterator<Set<String>> chunks = chunks(instrumentIds);
+        if (chunkExecutor == null) {
+            long written = 0;
+            while (chunks.hasNext()) {
+                written += writeAll(generator, queryService.getLastPrices(chunks.next(), asOf, visibleAt, completedUpTo));
+            }
+            return written;
+        }
+
+        CompletionService<List<LatestPrice>> running = new ExecutorCompletionService<>(chunkExecutor);
+        List<Future<List<LatestPrice>>> inFlight = new ArrayList<>(parallelism);
+        long written = 0;
+        try {
+            while (chunks.hasNext() && inFlight.size() < parallelism) {
+                Set<String> chunk = chunks.next();
+                inFlight.add(running.submit(() -> queryService.getLastPrices(chunk, asOf, visibleAt, completedUpTo)));
+            }
+            while (!inFlight.isEmpty()) {
+                Future<List<LatestPrice>> done = running.take();
+                inFlight.remove(done);
+                written += writeAll(generator, done.get());
+                if (chunks.hasNext()) {
+                    Set<String> chunk = chunks.next();
+                    inFlight.add(running.submit(() -> queryService.getLastPrices(chunk, asOf, visibleAt, completedUpTo)));
+                }
+            }
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Last price stream interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            // Client gone or a chunk failed: do not leave queries running for nobody
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private long writeAll(JsonGenerator generator, List<LatestPrice> prices) throws IOException {
+        for (LatestPrice price : prices) {
+            writeLine(generator, price);
+        }
+        return prices.size();
+    }
+
+    private void writeLine(JsonGenerator generator, LatestPrice price) throws IOException {
+        lineWriter.writeValue(generator, LastPriceResponse.from(price));
+    }
+
+    private Iterator<Set<String>> chunks(Set<String> instrumentIds) {
+        Iterator<String> ids = instrumentIds.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public Set<String> next() {
+                Set<String> chunk = new HashSet<>(Math.min(chunkSize, instrumentIds.size()) * 2);
+                while (ids.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(ids.next());
+                }
+                return chunk;
+            }
+        };
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (chunkExecutor != null) {
+            chunkExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.domain.BatchEntity;
+import com.pricing.pricingengine.domain.BatchStatus;
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.repository.BatchRepository;
+import com.pricing.pricingengine.repository.CompletionSequence;
+import com.pricing.pricingengine.repository.LatestPriceRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory instrumentId -> latest completed price snapshot.
+ * <p>
+ * The snapshot is an immutable map published through a volatile reference:
+ * readers take one reference and never block, writers build a new map and swap it in.
+ * Writers are serialized so that two completing batches cannot lose each other's merge.
+ * <p>
+ * Batches completed on this node are merged by {@link #onBatchCompleted}. Those completed on other nodes
+ * sharing the database are merged by {@link #catchUp}, which {@link CompletionPoller} runs in database lock
+ * mode: every completion number up to the last one merged here is accounted for, so it only has to look at
+ * the batches numbered since.
+ */
+@Component
+public class LatestPriceStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LatestPriceStore.class);
+
+    private final LatestPriceRepository latestRepo;
+    private final BatchRepository batchRepo;
+    private final CompletionSequence completionSequence;
+    private final SnapshotFile snapshotFile;
+    private final ApplicationEventPublisher events;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Map<String, LatestPrice> snapshot = Map.of();
+    /**
+     * Bumped on every change of {@link #snapshot} and on every completed batch merged, even one that changed
+     * no latest price, since it still changes point-in-time answers; written under {@code writeLock}.
+     */
+    private volatile long generation;
+    private volatile String lastBatchId;
+
+    /**
+     * Every batch numbered up to {@code mergedSeq} is merged; {@code mergedAhead} holds the numbers above it
+     * merged already, by completions on this node whose listeners ran ahead of a gap. Guarded by
+     * {@code followLock}, which is held across each batch's merge so that no batch is merged twice.
+     */
+    private final ReentrantLock followLock = new ReentrantLock();
+    private long mergedSeq;
+    private final TreeSet<Long> mergedAhead = new TreeSet<>();
+
+    public LatestPriceStore(LatestPriceRepository latestRepo,
+                            BatchRepository batchRepo,
+                            CompletionSequence completionSequence,
+                            SnapshotFile snapshotFile,
+                            ApplicationEventPublisher events) {
+        this.latestRepo = latestRepo;
+        this.batchRepo = batchRepo;
+        this.completionSequence = completionSequence;
+        this.snapshotFile = snapshotFile;
+        this.events = events;
+    }
+
+    /**
+     * Warm start from the snapshot file, if any, then the database on top: whichever price is newer wins.
+     * The file is only used if the database agrees with it, see {@link #isCurrent}.
+     */
+    @PostConstruct
+    void load() {
+        if (snapshotFile.isEnabled()) {
+            snapshotFile.read().filter(this::isCurrent).ifPresent(contents -> {
+                merge(contents.prices(), contents.lastBatchId());
+                log.info("Restored {} latest prices up to batch {} from snapshot file written at {}",
+                        contents.prices().size(), contents.lastBatchId(), contents.writtenAt());
+            });
+        }
+        // Read first: a batch completing meanwhile is then merged once more, never missed
+        mergedSeq = completionSequence.committed();
+        List<LatestPrice> prices = latestRepo.findAllLatest();
+        merge(prices, null);
+        log.info("Latest price snapshot loaded with {} instruments", size());
+    }
+
+    /**
+     * A snapshot file is local to a node, while the database may be shared with nodes that completed or
+     * purged batches since the file was written. The file is trusted only if the last batch it includes is
+     * completed in the database: everything completed later is then merged on top from latest_price. A database
+     * without completed batches, such as a fresh in-memory one, has nothing to contradict the file.
+     */
+    private boolean isCurrent(SnapshotFile.Contents contents) {
+        if (batchRepo.countByStatus(BatchStatus.COMPLETED) == 0) {
+            return true;
+        }
+        boolean completed = contents.lastBatchId() != null && batchRepo.findById(contents.lastBatchId())
+                .filter(batch -> batch.getStatus() == BatchStatus.COMPLETED)
+                .isPresent();
+        if (!completed) {
+            log.warn("Ignoring snapshot file written at {}: its last batch {} is not completed in the database",
+                    contents.writtenAt(), contents.lastBatchId());
+        }
+        return completed;
+    }
+
+    /**
+     * Merges only the rows the completed batch won in latest_price, once its transaction has committed,
+     * then announces the prices that changed.
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onBatchCompleted(BatchCompletedEvent event) {
+        long seq = event.completionSeq();
+        followLock.lock();
+        try {
+            if (seq <= mergedSeq || mergedAhead.contains(seq)) {
+                return; // caught up with already
+            }
+            mergeBatch(event.batchId());
+            mergedAhead.add(seq);
+            while (mergedAhead.remove(mergedSeq + 1)) {
+                mergedSeq++;
+            }
+        } finally {
+            followLock.unlock();
+        }
+    }
+
+    /**
+     * Merges the batches numbered since the last one merged here that this node has not merged yet, i.e. those
+     * completed on other nodes, in completion order.
+     *
+     * @return the number of batches merged
+     */
+    @Transactional(readOnly = true)
+    public int catchUp() {
+        long committed = completionSequence.committed();
+        followLock.lock();
+        try {
+            if (committed <= mergedSeq) {
+                return 0;
+            }
+            int merged = 0;
+            List<BatchEntity> completed =
+                    batchRepo.findByCompletionSeqBetweenOrderByCompletionSeq(mergedSeq + 1, committed);
+            for (BatchEntity batch : completed) {
+                if (!mergedAhead.contains(batch.getCompletionSeq())) {
+                    mergeBatch(batch.getId());
+                    merged++;
+                }
+            }
+            mergedSeq = committed;
+            mergedAhead.headSet(committed, true).clear();
+            return merged;
+        } finally {
+            followLock.unlock();
+        }
+    }
+
+    private void mergeBatch(String batchId) {
+        List<LatestPrice> prices = latestRepo.findLatestByBatch(batchId);
+        List<LatestPrice> changed = merge(prices, batchId);
+        log.debug("Merged {} prices of batch {} into snapshot", changed.size(), batchId);
+        if (!changed.isEmpty()) {
+            events.publishEvent(new LatestPricesChangedEvent(batchId, changed));
+        }
+    }
+
+    public List<LatestPrice> get(Collection<String> instrumentIds) {
+        Map<String, LatestPrice> current = snapshot;
+        List<LatestPrice> result = new ArrayList<>(instrumentIds.size());
+        for (String id : instrumentIds) {
+            LatestPrice price = current.get(id);
+            if (price != null) {
+                result.add(price);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Consistent view of all prices with the generation they belong to.
+     */
+    public View view() {
+        writeLock.lock();
+        try {
+            return new View(snapshot, generation, lastBatchId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    public record View(Map<String, LatestPrice> prices, long generation, String lastBatchId) {}
+
+    /**
+     * @param batchId the completed batch the prices come from, null to keep the current one
+     * @return the prices that replaced the snapshot entry
+     */
+    List<LatestPrice> merge(Collection<LatestPrice> prices, String batchId) {
+        List<LatestPrice> changed = new ArrayList<>(prices.size());
+        writeLock.lock();
+        try {
+            if (batchId != null) {
+                lastBatchId = batchId;
+                generation++;
+            }
+            if (prices.isEmpty()) {
+                return changed;
+            }
+            Map<String, LatestPrice> next = new HashMap<>(snapshot);
+            for (LatestPrice price : prices) {
+                if (price.supersedes(next.get(price.getInstrumentId()))) {
+                    next.put(price.getInstrumentId(), price);
+                    changed.add(price);
+                }
+            }
+            if (!changed.isEmpty()) {
+                snapshot = Collections.unmodifiableMap(next);
+                if (batchId == null) {
+                    generation++;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,11 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.domain.LatestPrice;
+
+import java.util.List;
+
+/**
+ * Published by {@link LatestPriceStore} after a completed batch was merged into the snapshot,
+ * with only the prices that actually replaced the previous ones.
+ */
+public record LatestPricesChangedEvent(String batchId, List<LatestPrice> prices) {}
@@ -0,0 +1,95 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.dto.PriceChangeResponse;
+import com.pricing.pricingengine.dto.PriceChangesResponse;
+import com.pricing.pricingengine.repository.CompletionSequence;
+import com.pricing.pricingengine.repository.PriceChangeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental sync of latest prices: what changed since a completion sequence number.
+ * <p>
+ * A client starts with {@code since=0}, follows {@code nextCursor} until it is null, and keeps the
+ * {@code nextSince} of the last page for its next sync. Each price is returned with the sequence of the
+ * batch that set it; re-delivering a price already seen is possible and harmless, missing one is not.
+ */
+@Service
+public class PriceChangeService {
+
+    private final PriceChangeRepository changeRepo;
+    private final CompletionSequence completionSequence;
+    private final int maxPageSize;
+
+    public PriceChangeService(PriceChangeRepository changeRepo,
+                              CompletionSequence completionSequence,
+                              @Value("${pricing.changes.max-page-size:10000}") int maxPageSize) {
+        this.changeRepo = changeRepo;
+        this.completionSequence = completionSequence;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * @param cursor from a previous page; takes precedence over {@code since}
+     */
+    public PriceChangesResponse getChanges(long since, String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        // Past every instrument key of batch 'since', i.e. at the start of the next one
+        Position from = cursor != null ? Position.parse(cursor) : new Position(since, Integer.MAX_VALUE);
+
+        // Read before the page: every completion up to here is committed and visible to the page query
+        long committed = completionSequence.committed();
+        List<PriceChangeRepository.Change> changes = changeRepo.findAfter(from.sequence, from.instrumentKey, limit + 1);
+
+        boolean more = changes.size() > limit;
+        if (more) {
+            changes = changes.subList(0, limit);
+        }
+        List<PriceChangeResponse> prices = new ArrayList<>(changes.size());
+        long highest = Math.max(committed, from.sequence);
+        for (PriceChangeRepository.Change change : changes) {
+            prices.add(new PriceChangeResponse(change.price().getInstrumentId(), change.price().getAsOf(),
+                    change.price().getPayload(), change.sequence()));
+            highest = Math.max(highest, change.sequence());
+        }
+
+        if (more) {
+            PriceChangeRepository.Change last = changes.get(changes.size() - 1);
+            return new PriceChangesResponse(prices, new Position(last.sequence(), last.instrumentKey()).format(), null);
+        }
+        return new PriceChangesResponse(prices, null, highest);
+    }
+
+    /**
+     * Feed position; opaque to clients.
+     */
+    private record Position(long sequence, int instrumentKey) {
+
+        static Position parse(String cursor) {
+            int dot = cursor.indexOf('.');
+            try {
+                Position position = new Position(
+                        Long.parseLong(cursor.substring(0, dot)),
+                        Integer.parseInt(cursor.substring(dot + 1)));
+                if (position.sequence >= 0 && position.instrumentKey >= 0) {
+                    return position;
+                }
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+
+        String format() {
+            return sequence + "." + instrumentKey;
+        }
+    }
+}
@@ -1,21 +1,99 @@
 package com.pricing.pricingengine.service;
 
-import com.pricing.pricingengine.domain.PriceEntity;
-import com.pricing.pricingengine.repository.PriceRepository;
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.storage.PriceStorage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class PriceQueryService {
 
-    private final PriceRepository repo;
+    /** Upper bounds of the request size buckets used to tag query latency. */
+    private static final int[] SIZE_BUCKETS = {1, 10, 100, 1000};
 
-    public PriceQueryService(PriceRepository repo) {
-        this.repo = repo;
+    private final LatestPriceStore store;
+    private final PriceStorage storage;
+
+    /** One timer per size bucket, the last one for requests above the largest bound. */
+    private final Timer[] latestTimers;
+    private final Timer[] pointInTimeTimers;
+
+    public PriceQueryService(LatestPriceStore store, PriceStorage storage, MeterRegistry registry) {
+        this.store = store;
+        this.storage = storage;
+        this.latestTimers = timers(registry, "latest");
+        this.pointInTimeTimers = timers(registry, "point-in-time");
+    }
+
+    /**
+     * Served from the in-memory snapshot; never touches the database.
+     */
+    public List<LatestPrice> getLastPrices(Set<String> instrumentIds) {
+        long start = System.nanoTime();
+        List<LatestPrice> prices = store.get(instrumentIds);
+        timerFor(latestTimers, instrumentIds.size()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return prices;
+    }
+
+    /**
+     * Last completed price per instrument at or before {@code asOf}, as visible at {@code visibleAt}
+     * (batches completed by then). Either cutoff may be null; with neither this is {@link #getLastPrices}.
+     */
+    @Transactional(readOnly = true)
+    public List<LatestPrice> getLastPrices(Set<String> instrumentIds, Instant asOf, Instant visibleAt) {
+        return getLastPrices(instrumentIds, asOf, visibleAt, null);
+    }
+
+    /**
+     * As {@link #getLastPrices(Set, Instant, Instant)}, counting only batches numbered at most
+     * {@code completedUpTo}; see {@link #readableCompletionSeq()}.
+     */
+    @Transactional(readOnly = true)
+    public List<LatestPrice> getLastPrices(Set<String> instrumentIds, Instant asOf, Instant visibleAt,
+                                           Long completedUpTo) {
+        if (asOf == null && visibleAt == null && completedUpTo == null) {
+            return getLastPrices(instrumentIds);
+        }
+        long start = System.nanoTime();
+        List<LatestPrice> prices = storage.findLastPricesAt(instrumentIds, asOf, visibleAt, completedUpTo);
+        timerFor(pointInTimeTimers, instrumentIds.size()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return prices;
+    }
+
+    /**
+     * Completion number to pin the lookups of one request to, so that they agree on which batches count.
+     */
+    public long readableCompletionSeq() {
+        return storage.readableCompletionSeq();
+    }
+
+    private static Timer[] timers(MeterRegistry registry, String kind) {
+        Timer[] timers = new Timer[SIZE_BUCKETS.length + 1];
+        for (int i = 0; i < timers.length; i++) {
+            String size = i < SIZE_BUCKETS.length ? "le" + SIZE_BUCKETS[i] : "gt" + SIZE_BUCKETS[i - 1];
+            timers[i] = Timer.builder("pricing.query.last-prices")
+                    .tag("kind", kind)
+                    .tag("size", size)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(1))
+                    .register(registry);
+        }
+        return timers;
     }
 
-    public List<PriceEntity> getLastPrices(Set<String> instrumentIds) {
-        return repo.findLastPrices(instrumentIds);
+    private static Timer timerFor(Timer[] timers, int size) {
+        int i = 0;
+        while (i < SIZE_BUCKETS.length && size > SIZE_BUCKETS[i]) {
+            i++;
+        }
+        return timers[i];
     }
 }
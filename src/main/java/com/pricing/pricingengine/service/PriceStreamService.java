@@ -0,0 +1,274 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.dto.LastPriceResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes latest price changes to Server-Sent Events subscribers.
+ * <p>
+ * A subscriber names the instruments it wants and first receives their current prices
+ * ({@code snapshot} event), then one {@code prices} event per delivery with whatever changed since.
+ * Each subscriber has its own pending buffer holding at most one price per subscribed instrument:
+ * updates a slow client has not received yet are coalesced to the newest, so the buffer never
+ * exceeds the subscription's size, which is capped at {@code maxInstruments}. Deliveries run on a
+ * small dispatcher pool, never on the thread that completed the batch. Nothing is delivered before the
+ * snapshot, and a price the subscriber already has is never delivered again.
+ * <p>
+ * A client that stops reading fills its socket buffers and blocks the write to it. Writes therefore run on
+ * threads of their own and the dispatcher waits at most {@code sendTimeout} for each; a subscriber whose
+ * write takes longer is dropped, so it cannot hold up the deliveries of the others.
+ */
+@Service
+public class PriceStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceStreamService.class);
+
+    private static final String SNAPSHOT = "snapshot";
+    private static final String PRICES = "prices";
+
+    private final LatestPriceStore store;
+    private final int maxInstruments;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+
+    private final ExecutorService dispatcher;
+    private final ExecutorService writers;
+
+    /** instrumentId -> subscriptions interested in it */
+    private final ConcurrentHashMap<String, Set<Subscription>> byInstrument = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    public PriceStreamService(LatestPriceStore store,
+                              MeterRegistry registry,
+                              @Value("${pricing.stream.max-instruments:10000}") int maxInstruments,
+                              @Value("${pricing.stream.timeout:30m}") Duration timeout,
+                              @Value("${pricing.stream.dispatch-threads:4}") int dispatchThreads,
+                              @Value("${pricing.stream.send-timeout:10s}") Duration sendTimeout,
+                              WorkerThreads workerThreads) {
+        this.store = store;
+        this.maxInstruments = maxInstruments;
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, workerThreads.factory("price-stream-"));
+        // One write at a time per subscriber; a blocked one lasts until the container's write timeout
+        this.writers = Executors.newCachedThreadPool(workerThreads.factory("price-stream-send-"));
+
+        Gauge.builder("pricing.stream.subscribers", subscriptions, Set::size)
+                .description("Open price stream subscriptions")
+                .register(registry);
+    }
+
+    public SseEmitter subscribe(Set<String> instrumentIds) {
+        if (instrumentIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one instrument id is required");
+        }
+        if (instrumentIds.size() > maxInstruments) {
+            throw new IllegalArgumentException("At most " + maxInstruments + " instruments per subscription");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscription subscription = new Subscription(emitter, Set.copyOf(instrumentIds));
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+
+        // Register before reading the snapshot: a change racing the subscription is held back and coalesced into
+        // the snapshot, never lost; one the snapshot already holds is not sent again
+        subscriptions.add(subscription);
+        for (String id : subscription.instrumentIds) {
+            byInstrument.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        subscription.offer(store.get(subscription.instrumentIds), SNAPSHOT);
+
+        log.debug("Price stream subscribed for {} instruments", instrumentIds.size());
+        return emitter;
+    }
+
+    /**
+     * Runs on the thread that merged the batch into the snapshot; only fills buffers.
+     */
+    @EventListener
+    public void onLatestPricesChanged(LatestPricesChangedEvent event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        for (LatestPrice price : event.prices()) {
+            Set<Subscription> interested = byInstrument.get(price.getInstrumentId());
+            if (interested != null) {
+                for (Subscription subscription : interested) {
+                    subscription.offer(List.of(price), PRICES);
+                }
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (!subscriptions.remove(subscription)) {
+            return;
+        }
+        subscription.closed = true;
+        for (String id : subscription.instrumentIds) {
+            byInstrument.computeIfPresent(id, (k, subs) -> {
+                subs.remove(subscription);
+                return subs.isEmpty() ? null : subs;
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        writers.shutdownNow();
+        subscriptions.forEach(s -> s.emitter.complete());
+    }
+
+    private final class Subscription {
+
+        final SseEmitter emitter;
+        final Set<String> instrumentIds;
+        volatile boolean closed;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        /** Newest undelivered price per instrument, guarded by {@code lock}. */
+        private final Map<String, LatestPrice> pending = new LinkedHashMap<>();
+        /** Newest price per instrument queued so far, delivered or not, guarded by {@code lock}. */
+        private final Map<String, LatestPrice> latest = new HashMap<>();
+        /** Nothing is delivered before the snapshot is queued, guarded by {@code lock}. */
+        private boolean snapshotQueued;
+        /** Event name of the next delivery; anything delivered together with the snapshot is part of it. */
+        private String pendingEvent;
+        private boolean scheduled;
+
+        Subscription(SseEmitter emitter, Set<String> instrumentIds) {
+            this.emitter = emitter;
+            this.instrumentIds = instrumentIds;
+        }
+
+        void offer(List<LatestPrice> prices, String event) {
+            if (closed) {
+                return;
+            }
+            boolean schedule;
+            lock.lock();
+            try {
+                for (LatestPrice price : prices) {
+                    LatestPrice previous = latest.get(price.getInstrumentId());
+                    if (isNews(price, previous)) {
+                        latest.put(price.getInstrumentId(), price);
+                        pending.put(price.getInstrumentId(), price);
+                    }
+                }
+                if (event.equals(SNAPSHOT)) {
+                    snapshotQueued = true;
+                    pendingEvent = SNAPSHOT;
+                } else if (pendingEvent == null && !pending.isEmpty()) {
+                    pendingEvent = event;
+                }
+                schedule = snapshotQueued && pendingEvent != null && !scheduled;
+                scheduled |= schedule;
+            } finally {
+                lock.unlock();
+            }
+            if (schedule) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    emitter.complete(); // shutting down
+                }
+            }
+        }
+
+        /**
+         * Changes are published in completion order, after the snapshot took them in: a price that is not
+         * newer than the one already queued, or is the same one again, is old news.
+         */
+        private static boolean isNews(LatestPrice price, LatestPrice previous) {
+            return previous == null || price.supersedes(previous)
+                    && !(price.getAsOf().equals(previous.getAsOf())
+                    && Objects.equals(price.getBatchId(), previous.getBatchId()));
+        }
+
+        private void drain() {
+            while (!closed) {
+                List<LastPriceResponse> batch;
+                String event;
+                lock.lock();
+                try {
+                    if (pending.isEmpty() && pendingEvent == null) {
+                        scheduled = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.size());
+                    for (LatestPrice price : pending.values()) {
+                        batch.add(LastPriceResponse.from(price));
+                    }
+                    event = pendingEvent;
+                    pending.clear();
+                    pendingEvent = null;
+                } finally {
+                    lock.unlock();
+                }
+                if (!send(event, batch)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return false if the subscriber was dropped, or the service is shutting down
+         */
+        private boolean send(String event, List<LastPriceResponse> batch) {
+            Future<?> send;
+            try {
+                send = writers.submit(() -> {
+                    emitter.send(SseEmitter.event().name(event).data(batch, MediaType.APPLICATION_JSON));
+                    return null;
+                });
+            } catch (RejectedExecutionException e) {
+                return false; // shutting down
+            }
+            try {
+                send.get(sendTimeout.toNanos(), TimeUnit.NANOSECONDS);
+                return true;
+            } catch (TimeoutException e) {
+                log.info("Price stream subscriber dropped, not reading: no send within {}", sendTimeout);
+                send.cancel(true);
+                drop(e);
+            } catch (ExecutionException e) {
+                log.debug("Price stream subscriber gone: {}", e.getCause().getMessage());
+                drop(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // shutting down
+            }
+            return false;
+        }
+
+        private void drop(Throwable cause) {
+            unsubscribe(this);
+            // The emitter is locked while a send is under way: complete it once that gives up, off the dispatcher
+            try {
+                writers.execute(() -> emitter.completeWithError(cause));
+            } catch (RejectedExecutionException e) {
+                // shutting down, completed by shutdown()
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.ingest.CompressedInput;
+import com.pricing.pricingengine.ingest.PriceCsvReader;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Synchronous upload of one or more files (shards) into the same batch.
+ * <p>
+ * Each shard is decompressed, parsed and persisted in chunks of {@code chunkSize} rows on its own worker;
+ * uploads share the batch lock, so shards insert concurrently and rows of different shards interleave in
+ * no particular order. The first failing shard stops the others at their next chunk. Rows already persisted
+ * stay in the batch, as with a single file: nothing is visible before the batch is completed.
+ */
+@Service
+public class ShardedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedUploadService.class);
+
+    private final BatchService batchService;
+    private final int chunkSize;
+
+    private final ExecutorService shardExecutor;
+
+    public ShardedUploadService(BatchService batchService,
+                                @Value("${pricing.upload.chunk-size:1000}") int chunkSize,
+                                @Value("${pricing.upload.shard-threads:4}") int shardThreads,
+                                WorkerThreads workerThreads) {
+        this.batchService = batchService;
+        this.chunkSize = chunkSize;
+        this.shardExecutor = Executors.newFixedThreadPool(shardThreads, workerThreads.factory("upload-shard-"));
+    }
+
+    /**
+     * @return number of rows persisted
+     * @throws IllegalArgumentException if a shard is malformed; the message names the shard and line
+     */
+    public long upload(String batchId, List<MultipartFile> shards) throws IOException {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one file is required");
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        if (shards.size() == 1) {
+            return uploadShard(batchId, shards.get(0), stop); // no handoff for the common case
+        }
+
+        List<Future<Long>> runs = new ArrayList<>(shards.size());
+        for (MultipartFile shard : shards) {
+            runs.add(shardExecutor.submit(() -> uploadShard(batchId, shard, stop)));
+        }
+
+        long rows = 0;
+        Throwable failure = null;
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                try {
+                    rows += runs.get(i).get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = shardFailure(shards.get(i), e.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            stop.set(true);
+            runs.forEach(run -> run.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Upload interrupted", e);
+        }
+
+        if (failure instanceof IOException io) {
+            throw io;
+        }
+        if (failure instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+        log.info("Uploaded {} rows from {} shards into batch {}", rows, shards.size(), batchId);
+        return rows;
+    }
+
+    private long uploadShard(String batchId, MultipartFile shard, AtomicBoolean stop) throws IOException {
+        long rows = 0;
+        try (PriceCsvReader reader = new PriceCsvReader(CompressedInput.open(shard.getInputStream()))) {
+            List<PriceRecord> buffer = new ArrayList<>(chunkSize);
+            while (!stop.get() && reader.read(buffer, chunkSize) > 0) {
+                batchService.uploadPrices(batchId, buffer);
+                rows += buffer.size();
+                buffer.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            stop.set(true);
+            throw e;
+        }
+        log.debug("Shard {} of batch {}: {} rows", shard.getOriginalFilename(), batchId, rows);
+        return rows;
+    }
+
+    private static Throwable shardFailure(MultipartFile shard, Throwable cause) {
+        String name = shard.getOriginalFilename();
+        if (cause instanceof IllegalArgumentException) {
+            return new IllegalArgumentException(name + ": " + cause.getMessage(), cause);
+        }
+        return cause;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shardExecutor.shutdownNow();
+    }
+}
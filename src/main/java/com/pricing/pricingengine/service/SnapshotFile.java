@@ -0,0 +1,249 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.domain.LatestPrice;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file holding the latest price snapshot, so a restart can serve prices before the database has them.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header  magic "PSNP" (int), version (short), reserved (short), body length (long), body CRC32 (int)
+ * body    written at (long, epoch millis), last completed batch id (string)
+ *         instrument dictionary: count (int), ids (string...)
+ *         batch dictionary:      count (int), ids (string...)
+ *         prices: count (int), then per price
+ *                 instrument index (int), asOf epoch nanos (long), batch index (int), payload (bytes)
+ * string  length (int, -1 for null) + UTF-8 bytes; bytes: length (int) + bytes
+ * </pre>
+ * Files are written to a temporary sibling and renamed into place, so a crash never leaves a torn file.
+ * Reading maps the file and checks magic, version, length and checksum before decoding anything; a file
+ * that fails a check is ignored.
+ */
+@Component
+public class SnapshotFile {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotFile.class);
+
+    static final int MAGIC = 0x50534E50; // "PSNP"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 2 + 8 + 4;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Path path;
+    private final boolean enabled;
+
+    public SnapshotFile(@Value("${pricing.snapshot.path:${java.io.tmpdir}/pricingengine/latest-prices.snap}") Path path,
+                        @Value("${pricing.snapshot.enabled:true}") boolean enabled) {
+        this.path = path;
+        this.enabled = enabled;
+    }
+
+    public record Contents(Instant writtenAt, String lastBatchId, List<LatestPrice> prices) {}
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * @return number of prices written; prices whose asOf does not fit in epoch nanos are skipped
+     */
+    public int write(Collection<LatestPrice> prices, String lastBatchId) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            int written;
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_SIZE);
+                CRC32 crc = new CRC32();
+                CountingOutputStream counter = new CountingOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(counter, crc));
+                written = writeBody(out, prices, lastBatchId);
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                        .putInt(MAGIC)
+                        .putShort(VERSION)
+                        .putShort((short) 0)
+                        .putLong(counter.count)
+                        .putInt((int) crc.getValue())
+                        .flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return written;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Empty if there is no file or it fails validation.
+     */
+    public Optional<Contents> read() {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(decode(buffer));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable snapshot file {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static int writeBody(DataOutputStream out, Collection<LatestPrice> prices, String lastBatchId)
+            throws IOException {
+        Map<String, Integer> instruments = new LinkedHashMap<>();
+        Map<String, Integer> batches = new LinkedHashMap<>();
+        List<LatestPrice> encodable = new ArrayList<>(prices.size());
+        for (LatestPrice price : prices) {
+            if (!fitsEpochNanos(price.getAsOf())) {
+                log.warn("Skipping {} in snapshot file: asOf {} out of range", price.getInstrumentId(), price.getAsOf());
+                continue;
+            }
+            encodable.add(price);
+            instruments.putIfAbsent(price.getInstrumentId(), instruments.size());
+            batches.putIfAbsent(price.getBatchId(), batches.size());
+        }
+
+        out.writeLong(System.currentTimeMillis());
+        writeString(out, lastBatchId);
+        writeDictionary(out, instruments.keySet());
+        writeDictionary(out, batches.keySet());
+
+        out.writeInt(encodable.size());
+        for (LatestPrice price : encodable) {
+            Instant asOf = price.getAsOf();
+            out.writeInt(instruments.get(price.getInstrumentId()));
+            out.writeLong(asOf.getEpochSecond() * NANOS_PER_SECOND + asOf.getNano());
+            out.writeInt(batches.get(price.getBatchId()));
+            writeBytes(out, price.getPayloadJson().getBytes(StandardCharsets.UTF_8));
+        }
+        return encodable.size();
+    }
+
+    static Contents decode(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("not a snapshot file");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalStateException("unsupported version " + version);
+        }
+        buffer.getShort();
+        long length = buffer.getLong();
+        int expectedCrc = buffer.getInt();
+        if (length != buffer.remaining()) {
+            throw new IllegalStateException("length mismatch, truncated file?");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IllegalStateException("checksum mismatch");
+        }
+
+        Instant writtenAt = Instant.ofEpochMilli(buffer.getLong());
+        String lastBatchId = readString(buffer);
+        String[] instruments = readDictionary(buffer);
+        String[] batches = readDictionary(buffer);
+
+        int count = buffer.getInt();
+        List<LatestPrice> prices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String instrumentId = instruments[buffer.getInt()];
+            long nanos = buffer.getLong();
+            Instant asOf = Instant.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND), Math.floorMod(nanos, NANOS_PER_SECOND));
+            String batchId = batches[buffer.getInt()];
+            String payload = readString(buffer);
+            prices.add(new LatestPrice(instrumentId, asOf, payload, batchId));
+        }
+        return new Contents(writtenAt, lastBatchId, prices);
+    }
+
+    private static boolean fitsEpochNanos(Instant instant) {
+        long seconds = instant.getEpochSecond();
+        return seconds > Long.MIN_VALUE / NANOS_PER_SECOND + 1 && seconds < Long.MAX_VALUE / NANOS_PER_SECOND - 1;
+    }
+
+    private static void writeDictionary(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static String[] readDictionary(ByteBuffer buffer) {
+        String[] values = new String[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(buffer);
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
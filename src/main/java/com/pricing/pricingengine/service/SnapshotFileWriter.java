@@ -0,0 +1,83 @@
+package com.pricing.pricingengine.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes the latest price snapshot to {@link SnapshotFile} every {@code interval}, and once more on
+ * shutdown. Nothing is written while the snapshot has not changed since the last write.
+ */
+@Component
+public class SnapshotFileWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotFileWriter.class);
+
+    private final LatestPriceStore store;
+    private final SnapshotFile snapshotFile;
+    private final Duration interval;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private long writtenGeneration = -1; // guarded by writeLock
+
+    public SnapshotFileWriter(LatestPriceStore store,
+                              SnapshotFile snapshotFile,
+                              @Value("${pricing.snapshot.interval:30s}") Duration interval,
+                              WorkerThreads workerThreads) {
+        this.store = store;
+        this.snapshotFile = snapshotFile;
+        this.interval = interval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(workerThreads.factory("snapshot-writer-"));
+    }
+
+    @PostConstruct
+    void start() {
+        if (snapshotFile.isEnabled()) {
+            // What was just loaded is already on disk or in the database
+            writtenGeneration = store.generation(); // before the scheduler starts, so no lock needed
+            scheduler.scheduleWithFixedDelay(this::writeIfChanged,
+                    interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return true if a new file was written
+     */
+    public boolean writeIfChanged() {
+        writeLock.lock();
+        try {
+            LatestPriceStore.View view = store.view();
+            if (view.generation() == writtenGeneration) {
+                return false;
+            }
+            long start = System.nanoTime();
+            int written = snapshotFile.write(view.prices().values(), view.lastBatchId());
+            writtenGeneration = view.generation();
+            log.info("Wrote {} latest prices to {} in {} ms", written, snapshotFile.path(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not write snapshot file {}", snapshotFile.path(), e);
+            return false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        if (snapshotFile.isEnabled() && scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+            writeIfChanged();
+        }
+    }
+}
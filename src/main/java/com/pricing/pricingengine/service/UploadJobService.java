@@ -0,0 +1,245 @@
+package com.pricing.pricingengine.service;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.dto.UploadJobStatus;
+import com.pricing.pricingengine.ingest.CompressedInput;
+import com.pricing.pricingengine.ingest.PriceCsvReader;
+import com.pricing.pricingengine.ingest.UploadJob;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs file uploads in the background.
+ * <p>
+ * The files are spooled to disk as received, compressed or not, and the caller gets a job id immediately.
+ * Each job is a two-stage pipeline: a parse stage decompresses and reads the files in turn, filling chunks of
+ * {@code chunkSize} rows into a bounded queue, and {@code persistWorkers} persist workers drain it concurrently
+ * through {@link BatchService#uploadPrices}, which lets chunks of one batch insert in parallel. The bounded queue
+ * gives backpressure, so parsing never runs more than {@code queueCapacity} chunks ahead of the database.
+ * <p>
+ * The files of one job are parsed one after another on purpose: parsing is rarely the bottleneck behind the
+ * persist workers, and one parse thread per job keeps {@code max-concurrent-jobs} a bound on parse threads.
+ * Producers that need the files parsed in parallel use the synchronous upload, which parses every file on the
+ * shard pool.
+ */
+@Service
+public class UploadJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadJobService.class);
+
+    /** Marks the end of the parsed stream on the queue. */
+    private static final List<PriceRecord> END = List.of();
+
+    private final BatchService batchService;
+    private final int chunkSize;
+    private final int queueCapacity;
+    private final int persistWorkers;
+    private final Path spoolDir;
+    private final Duration retention;
+
+    private final ExecutorService parseExecutor;
+    private final ExecutorService persistExecutor;
+
+    private final ConcurrentHashMap<String, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    public UploadJobService(BatchService batchService,
+                            @Value("${pricing.upload.async.chunk-size:1000}") int chunkSize,
+                            @Value("${pricing.upload.async.queue-capacity:8}") int queueCapacity,
+                            @Value("${pricing.upload.async.max-concurrent-jobs:4}") int maxConcurrentJobs,
+                            @Value("${pricing.upload.async.persist-workers:4}") int persistWorkers,
+                            @Value("${pricing.upload.async.spool-dir:${java.io.tmpdir}}") Path spoolDir,
+                            @Value("${pricing.upload.async.retention:1h}") Duration retention,
+                            WorkerThreads workerThreads) {
+        this.batchService = batchService;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+        this.persistWorkers = persistWorkers;
+        this.spoolDir = spoolDir;
+        this.retention = retention;
+        // Enough persist threads for every running parse stage, so a parse stage never waits on a starved persister
+        this.parseExecutor = Executors.newFixedThreadPool(maxConcurrentJobs, workerThreads.factory("upload-parse-"));
+        this.persistExecutor = Executors.newFixedThreadPool(maxConcurrentJobs * persistWorkers,
+                workerThreads.factory("upload-persist-"));
+    }
+
+    /**
+     * Spools the files and queues them as one job. The batch must already exist.
+     */
+    public UploadJob submit(String batchId, List<MultipartFile> files) throws IOException {
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("At least one file is required");
+        }
+        evictExpiredJobs();
+
+        Files.createDirectories(spoolDir);
+        List<Path> spoolFiles = new ArrayList<>(files.size());
+        long bytes = 0;
+        try {
+            for (MultipartFile file : files) {
+                Path spoolFile = Files.createTempFile(spoolDir, "price-upload-", ".csv");
+                spoolFiles.add(spoolFile);
+                try (InputStream in = file.getInputStream()) {
+                    Files.copy(in, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                bytes += file.getSize();
+            }
+        } catch (IOException e) {
+            deleteSpoolFiles(spoolFiles);
+            throw e;
+        }
+
+        UploadJob job = new UploadJob(UUID.randomUUID().toString(), batchId, spoolFiles);
+        jobs.put(job.jobId(), job);
+        parseExecutor.execute(() -> run(job));
+
+        log.info("Upload job {} queued for batch {} ({} files, {} bytes)", job.jobId(), batchId, files.size(), bytes);
+        return job;
+    }
+
+    public UploadJob submit(String batchId, MultipartFile file) throws IOException {
+        return submit(batchId, List.of(file));
+    }
+
+    public Optional<UploadJob> find(String batchId, String jobId) {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(job -> job.batchId().equals(batchId));
+    }
+
+    private void run(UploadJob job) {
+        job.start();
+        BlockingQueue<List<PriceRecord>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        List<Future<?>> persisters = new ArrayList<>(persistWorkers);
+        for (int i = 0; i < persistWorkers; i++) {
+            persisters.add(persistExecutor.submit(() -> persist(job, queue)));
+        }
+
+        String failure = null;
+        try {
+            parse(job, queue, persisters);
+        } catch (Exception e) {
+            // Chunks already queued are still persisted, as with the synchronous upload
+            failure = e.getMessage();
+        }
+
+        // The job is only marked finished once no persister can write any more
+        try {
+            for (Future<?> persister : persisters) {
+                try {
+                    persister.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause().getMessage();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            persisters.forEach(p -> p.cancel(true));
+            failure = "Interrupted";
+        } finally {
+            deleteSpoolFiles(job.spoolFiles());
+        }
+        if (failure != null) {
+            job.fail(failure);
+        } else {
+            job.succeed();
+        }
+
+        UploadJobStatus status = job.status();
+        log.info("Upload job {} for batch {} {}: {} rows persisted",
+                job.jobId(), job.batchId(), status.state(), status.rowsPersisted());
+    }
+
+    private void parse(UploadJob job, BlockingQueue<List<PriceRecord>> queue, List<Future<?>> persisters)
+            throws IOException, InterruptedException {
+        try {
+            List<Path> spoolFiles = job.spoolFiles();
+            for (int i = 0; i < spoolFiles.size(); i++) {
+                try (PriceCsvReader reader = new PriceCsvReader(CompressedInput.open(Files.newInputStream(spoolFiles.get(i))))) {
+                    while (!anyStopped(persisters)) {
+                        List<PriceRecord> chunk = new ArrayList<>(chunkSize);
+                        if (reader.read(chunk, chunkSize) == 0) {
+                            break;
+                        }
+                        job.parsed(chunk.size());
+                        enqueue(queue, chunk, persisters);
+                    }
+                } catch (IllegalArgumentException e) {
+                    if (spoolFiles.size() == 1) {
+                        throw e;
+                    }
+                    throw new IllegalArgumentException("File " + (i + 1) + " of " + spoolFiles.size() + ": " + e.getMessage(), e);
+                }
+            }
+        } finally {
+            // One end marker per worker; workers still alive keep draining, so this cannot block forever
+            for (int i = 0; i < persisters.size(); i++) {
+                while (!queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                    if (persisters.stream().allMatch(Future::isDone)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocks while the queue is full; gives up once a persist worker has stopped.
+     * Workers stop before their end marker only on failure.
+     */
+    private void enqueue(BlockingQueue<List<PriceRecord>> queue, List<PriceRecord> chunk, List<Future<?>> persisters)
+            throws InterruptedException {
+        while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            if (anyStopped(persisters)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean anyStopped(List<Future<?>> persisters) {
+        return persisters.stream().anyMatch(Future::isDone);
+    }
+
+    private Void persist(UploadJob job, BlockingQueue<List<PriceRecord>> queue) throws InterruptedException {
+        List<PriceRecord> chunk;
+        while ((chunk = queue.take()) != END) {
+            batchService.uploadPrices(job.batchId(), chunk);
+            job.persisted(chunk.size());
+        }
+        return null;
+    }
+
+    private static void deleteSpoolFiles(List<Path> spoolFiles) {
+        for (Path spoolFile : spoolFiles) {
+            try {
+                Files.deleteIfExists(spoolFile);
+            } catch (IOException e) {
+                log.warn("Could not delete spool file {}", spoolFile, e);
+            }
+        }
+    }
+
+    private void evictExpiredJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinishedBefore(cutoff));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        parseExecutor.shutdownNow();
+        persistExecutor.shutdownNow();
+    }
+}
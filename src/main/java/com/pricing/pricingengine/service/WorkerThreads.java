@@ -0,0 +1,33 @@
+package com.pricing.pricingengine.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread factories for the application's own worker pools, following {@code spring.threads.virtual.enabled}
+ * like Tomcat's request threads do.
+ * <p>
+ * Pools keep their fixed sizes in both modes, so concurrency limits do not change; in virtual mode a worker
+ * blocked on JDBC, a batch lock or a socket write parks its virtual thread and frees the carrier.
+ */
+@Component
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(@Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public ThreadFactory factory(String prefix) {
+        return virtual
+                ? Thread.ofVirtual().name(prefix, 0).factory()
+                : Thread.ofPlatform().name(prefix, 0).daemon(true).factory();
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+}
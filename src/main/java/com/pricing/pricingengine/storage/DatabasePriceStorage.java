@@ -0,0 +1,71 @@
+package com.pricing.pricingengine.storage;
+
+import com.pricing.pricingengine.domain.BatchEntity;
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.repository.CompletionSequence;
+import com.pricing.pricingengine.repository.LatestPriceRepository;
+import com.pricing.pricingengine.repository.PriceBulkWriter;
+import com.pricing.pricingengine.repository.PriceHistoryRepository;
+import com.pricing.pricingengine.repository.PriceRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Price rows in price_record, written by the {@link PriceBulkWriter} chosen with {@code pricing.ingest.writer}.
+ */
+@Component
+@ConditionalOnProperty(name = "pricing.storage.mode", havingValue = "database", matchIfMissing = true)
+public class DatabasePriceStorage implements PriceStorage {
+
+    private final PriceBulkWriter priceWriter;
+    private final LatestPriceRepository latestRepo;
+    private final PriceHistoryRepository historyRepo;
+    private final PriceRepository priceRepo;
+    private final CompletionSequence completionSequence;
+
+    public DatabasePriceStorage(PriceBulkWriter priceWriter,
+                                LatestPriceRepository latestRepo,
+                                PriceHistoryRepository historyRepo,
+                                PriceRepository priceRepo,
+                                CompletionSequence completionSequence) {
+        this.priceWriter = priceWriter;
+        this.latestRepo = latestRepo;
+        this.historyRepo = historyRepo;
+        this.priceRepo = priceRepo;
+        this.completionSequence = completionSequence;
+    }
+
+    @Override
+    public void write(BatchEntity batch, List<PriceRecord> records, int[] instrumentKeys, long[] payloadIds) {
+        priceWriter.write(batch, records, instrumentKeys, payloadIds);
+    }
+
+    @Override
+    public int publishLatest(BatchEntity batch) {
+        return latestRepo.upsertFromBatch(batch.getId());
+    }
+
+    @Override
+    public List<LatestPrice> findLastPricesAt(Collection<String> instrumentIds, Instant asOf, Instant completedBy,
+                                              Long completedUpTo) {
+        return historyRepo.findLastPricesAt(instrumentIds, asOf, completedBy, completedUpTo);
+    }
+
+    /**
+     * Rows are readable once committed, and a committed number means every lower one has committed.
+     */
+    @Override
+    public long readableCompletionSeq() {
+        return completionSequence.committed();
+    }
+
+    @Override
+    public long purgeChunk(String batchId, int limit) {
+        return priceRepo.deleteChunkByBatchId(batchId, limit);
+    }
+}
@@ -0,0 +1,54 @@
+package com.pricing.pricingengine.storage;
+
+import com.pricing.pricingengine.domain.BatchEntity;
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.dto.PriceRecord;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Where the price rows of batches live, selected with {@code pricing.storage.mode}.
+ * <p>
+ * Batch status, latest_price and the changes feed stay in the database whatever the mode, so batch
+ * visibility is decided by the completing transaction alone. Implementations join the caller's transaction.
+ */
+public interface PriceStorage {
+
+    /**
+     * Persists one chunk of an open batch; called under the batch's shared lock.
+     *
+     * @param instrumentKeys dictionary key of each record's instrument, in record order
+     * @param payloadIds     payload table id of each record's payload, or null, see {@code PayloadStore}
+     */
+    void write(BatchEntity batch, List<PriceRecord> records, int[] instrumentKeys, long[] payloadIds);
+
+    /**
+     * Folds the newest row per instrument of the batch into latest_price; called under the batch's exclusive
+     * lock, in the transaction that completes it.
+     *
+     * @return number of latest prices changed
+     */
+    int publishLatest(BatchEntity batch);
+
+    /**
+     * Latest completed price per instrument with {@code asOf <= asOf}, counting only batches completed
+     * at or before {@code completedBy} and numbered at most {@code completedUpTo} by {@code CompletionSequence}.
+     * A null cutoff is not applied. Instruments without such a price are left out.
+     */
+    List<LatestPrice> findLastPricesAt(Collection<String> instrumentIds, Instant asOf, Instant completedBy,
+                                       Long completedUpTo);
+
+    /**
+     * Completion number up to which every completed batch is readable by {@link #findLastPricesAt}. Lookups
+     * bounded by it see the same batches however much later they run, which lets the lookups of one request
+     * agree with each other.
+     */
+    long readableCompletionSeq();
+
+    /**
+     * Deletes at most about {@code limit} rows of a cancelled batch; callers loop until it returns 0.
+     */
+    long purgeChunk(String batchId, int limit);
+}
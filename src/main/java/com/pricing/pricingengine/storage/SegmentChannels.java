@@ -0,0 +1,108 @@
+package com.pricing.pricingengine.storage;
+
+import org.slf4j.*;
+
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read channels of segment files, opened on demand and kept open for at most {@code maxOpen} files, least
+ * recently used closed first.
+ * <p>
+ * A channel may be closed under a reader: by eviction, or by the JDK when another thread reading it is
+ * interrupted. {@link #read} then reopens it and tries again, unless the reader itself was interrupted.
+ */
+final class SegmentChannels {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentChannels.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * A read against an open channel.
+     */
+    interface Read<T> {
+
+        T apply(FileChannel channel) throws IOException;
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Path, FileChannel> open; // guarded by lock
+
+    SegmentChannels(int maxOpen) {
+        this.open = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, FileChannel> eldest) {
+                if (size() <= maxOpen) {
+                    return false;
+                }
+                closeQuietly(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    <T> T read(Path path, Read<T> read) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            FileChannel channel = channel(path);
+            try {
+                return read.apply(channel);
+            } catch (ClosedChannelException e) {
+                if (e instanceof ClosedByInterruptException || attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    void close(Path path) {
+        lock.lock();
+        try {
+            FileChannel channel = open.remove(path);
+            if (channel != null) {
+                closeQuietly(path, channel);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void closeAll() {
+        lock.lock();
+        try {
+            open.forEach(SegmentChannels::closeQuietly);
+            open.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private FileChannel channel(Path path) throws IOException {
+        lock.lock();
+        try {
+            FileChannel channel = open.get(path);
+            if (channel == null || !channel.isOpen()) {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+                open.put(path, channel);
+            }
+            return channel;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void closeQuietly(Path path, FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Closing segment {} failed: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.pricing.pricingengine.storage;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Encoding of the frames appended to a segment file; one frame holds one upload chunk.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header  magic "PSEG" (int), record count (int), body length (int), body CRC32C (int)
+ * body    per record: instrument key (int), asOf epoch second (long), asOf nano (int),
+ *                     payload length (int), payload (UTF-8 bytes)
+ * </pre>
+ * Records are addressed by their byte position in the file, which is what the index stores.
+ */
+final class SegmentFrames {
+
+    static final int MAGIC = 0x50534547; // "PSEG"
+    static final int HEADER_SIZE = 4 * 4;
+    static final int RECORD_HEADER_SIZE = 4 + 8 + 4 + 4;
+
+    private SegmentFrames() {}
+
+    interface RecordVisitor {
+
+        void record(int instrumentKey, long epochSecond, int nano, long recordOffset);
+    }
+
+    static ByteBuffer encode(List<PriceRecord> records, int[] instrumentKeys) {
+        byte[][] payloads = new byte[records.size()][];
+        long bodyLength = 0;
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = records.get(i).payloadJson().getBytes(StandardCharsets.UTF_8);
+            bodyLength += RECORD_HEADER_SIZE + payloads[i].length;
+        }
+        if (bodyLength > Integer.MAX_VALUE - HEADER_SIZE) {
+            throw new IllegalArgumentException("Chunk too large for one segment frame: " + bodyLength + " bytes");
+        }
+
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + (int) bodyLength);
+        frame.position(HEADER_SIZE);
+        for (int i = 0; i < payloads.length; i++) {
+            Instant asOf = records.get(i).asOf();
+            frame.putInt(instrumentKeys[i])
+                    .putLong(asOf.getEpochSecond())
+                    .putInt(asOf.getNano())
+                    .putInt(payloads[i].length)
+                    .put(payloads[i]);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(frame.array(), HEADER_SIZE, (int) bodyLength);
+        frame.flip();
+        frame.putInt(0, MAGIC)
+                .putInt(4, payloads.length)
+                .putInt(8, (int) bodyLength)
+                .putInt(12, (int) crc.getValue());
+        return frame;
+    }
+
+    /**
+     * Verifies one frame read back from the file and visits its records in order.
+     *
+     * @throws IllegalStateException if the frame is torn or corrupt
+     */
+    static void scan(ByteBuffer frame, long frameOffset, RecordVisitor visitor) {
+        int start = frame.position();
+        if (frame.remaining() < HEADER_SIZE || frame.getInt() != MAGIC) {
+            throw new IllegalStateException("No segment frame at offset " + frameOffset);
+        }
+        int count = frame.getInt();
+        int bodyLength = frame.getInt();
+        int expectedCrc = frame.getInt();
+        if (bodyLength != frame.remaining()) {
+            throw new IllegalStateException("Segment frame at offset " + frameOffset + " is truncated");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(frame.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IllegalStateException("Segment frame at offset " + frameOffset + " fails its checksum");
+        }
+
+        for (int i = 0; i < count; i++) {
+            long recordOffset = frameOffset + frame.position() - start;
+            int instrumentKey = frame.getInt();
+            long epochSecond = frame.getLong();
+            int nano = frame.getInt();
+            int payloadLength = frame.getInt();
+            frame.position(frame.position() + payloadLength);
+            visitor.record(instrumentKey, epochSecond, nano, recordOffset);
+        }
+    }
+
+    /**
+     * Payload of the record at {@code recordOffset}, with positional reads safe for concurrent callers.
+     */
+    static String readPayload(FileChannel channel, long recordOffset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        readFully(channel, header, recordOffset);
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt(RECORD_HEADER_SIZE - 4));
+        readFully(channel, payload, recordOffset + RECORD_HEADER_SIZE);
+        return new String(payload.array(), StandardCharsets.UTF_8);
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Segment ends before offset " + (position + buffer.limit()));
+            }
+        }
+        buffer.flip();
+    }
+}
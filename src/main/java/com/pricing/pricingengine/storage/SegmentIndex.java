@@ -0,0 +1,301 @@
+package com.pricing.pricingengine.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Per-instrument index of one completed batch's segment: for every instrument key, its records sorted by
+ * asOf (ties in file order) with their byte positions. Immutable once built.
+ * <p>
+ * Persisted as the batch's manifest file, big-endian:
+ * <pre>
+ * header  magic "PSIX" (int), version (short), reserved (short), body length (long), body CRC32 (int)
+ * body    batch id length (int) + UTF-8 bytes, key count (int), entry count (int),
+ *         keys (int...), entry starts per key plus end (int...),
+ *         asOf epoch seconds (long...), asOf nanos (int...), record positions (long...)
+ * </pre>
+ * Written to a temporary sibling and renamed into place, as {@code SnapshotFile} does.
+ */
+final class SegmentIndex {
+
+    static final int MAGIC = 0x50534958; // "PSIX"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 2 + 8 + 4;
+
+    private final int[] keys;
+    private final int[] starts;
+    private final long[] seconds;
+    private final int[] nanos;
+    private final long[] offsets;
+
+    private SegmentIndex(int[] keys, int[] starts, long[] seconds, int[] nanos, long[] offsets) {
+        this.keys = keys;
+        this.starts = starts;
+        this.seconds = seconds;
+        this.nanos = nanos;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Frame position and length, as recorded in segment_frame.
+     */
+    record Frame(long offset, int length) {}
+
+    /**
+     * Reads and verifies the given frames and indexes their records.
+     */
+    static SegmentIndex build(FileChannel channel, List<Frame> frames) throws IOException {
+        Entries entries = new Entries();
+        for (Frame frame : frames) {
+            ByteBuffer buffer = ByteBuffer.allocate(frame.length());
+            SegmentFrames.readFully(channel, buffer, frame.offset());
+            SegmentFrames.scan(buffer, frame.offset(), entries::add);
+        }
+        return entries.toIndex();
+    }
+
+    int instrumentCount() {
+        return keys.length;
+    }
+
+    int entryCount() {
+        return offsets.length;
+    }
+
+    int key(int instrument) {
+        return keys[instrument];
+    }
+
+    /**
+     * Newest entry of the {@code instrument}-th key: latest asOf, the last written among equals.
+     */
+    int newest(int instrument) {
+        return starts[instrument + 1] - 1;
+    }
+
+    /**
+     * Newest entry of {@code instrumentKey} with asOf at or before the cutoff (none: no cutoff), or -1.
+     */
+    int floor(int instrumentKey, Instant asOf) {
+        int instrument = Arrays.binarySearch(keys, instrumentKey);
+        if (instrument < 0) {
+            return -1;
+        }
+        if (asOf == null) {
+            return newest(instrument);
+        }
+        // First entry after the cutoff, the one before it is the answer
+        int lo = starts[instrument];
+        int hi = starts[instrument + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(seconds[mid], nanos[mid], asOf.getEpochSecond(), asOf.getNano()) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo > starts[instrument] ? lo - 1 : -1;
+    }
+
+    Instant asOf(int entry) {
+        return Instant.ofEpochSecond(seconds[entry], nanos[entry]);
+    }
+
+    long recordOffset(int entry) {
+        return offsets[entry];
+    }
+
+    void writeManifest(Path path, String batchId) throws IOException {
+        Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_SIZE);
+                CRC32 crc = new CRC32();
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+                byte[] id = batchId.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(id.length);
+                out.write(id);
+                out.writeInt(keys.length);
+                out.writeInt(offsets.length);
+                for (int key : keys) {
+                    out.writeInt(key);
+                }
+                for (int start : starts) {
+                    out.writeInt(start);
+                }
+                for (long second : seconds) {
+                    out.writeLong(second);
+                }
+                for (int nano : nanos) {
+                    out.writeInt(nano);
+                }
+                for (long offset : offsets) {
+                    out.writeLong(offset);
+                }
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                        .putInt(MAGIC)
+                        .putShort(VERSION)
+                        .putShort((short) 0)
+                        .putLong(out.size())
+                        .putInt((int) crc.getValue())
+                        .flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the file fails validation or belongs to another batch
+     */
+    static SegmentIndex readManifest(Path path, String batchId) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IllegalStateException("not a segment manifest");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IllegalStateException("unsupported version " + version);
+            }
+            buffer.getShort();
+            if (buffer.getLong() != buffer.remaining() - 4) {
+                throw new IllegalStateException("length mismatch, truncated file?");
+            }
+            int expectedCrc = buffer.getInt();
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IllegalStateException("checksum mismatch");
+            }
+
+            byte[] id = new byte[buffer.getInt()];
+            buffer.get(id);
+            if (!batchId.equals(new String(id, StandardCharsets.UTF_8))) {
+                throw new IllegalStateException("manifest of another batch");
+            }
+            int keyCount = buffer.getInt();
+            int entryCount = buffer.getInt();
+            int[] keys = new int[keyCount];
+            int[] starts = new int[keyCount + 1];
+            long[] seconds = new long[entryCount];
+            int[] nanos = new int[entryCount];
+            long[] offsets = new long[entryCount];
+            buffer.asIntBuffer().get(keys);
+            buffer.position(buffer.position() + 4 * keyCount);
+            buffer.asIntBuffer().get(starts);
+            buffer.position(buffer.position() + 4 * (keyCount + 1));
+            buffer.asLongBuffer().get(seconds);
+            buffer.position(buffer.position() + 8 * entryCount);
+            buffer.asIntBuffer().get(nanos);
+            buffer.position(buffer.position() + 4 * entryCount);
+            buffer.asLongBuffer().get(offsets);
+            return new SegmentIndex(keys, starts, seconds, nanos, offsets);
+        }
+    }
+
+    private static int compare(long secondsA, int nanosA, long secondsB, int nanosB) {
+        int bySeconds = Long.compare(secondsA, secondsB);
+        return bySeconds != 0 ? bySeconds : Integer.compare(nanosA, nanosB);
+    }
+
+    /**
+     * Records in file order, in primitive arrays grown as needed.
+     */
+    private static final class Entries {
+
+        private int size;
+        private int[] keys = new int[1024];
+        private long[] seconds = new long[1024];
+        private int[] nanos = new int[1024];
+        private long[] offsets = new long[1024];
+
+        void add(int key, long second, int nano, long offset) {
+            if (size == keys.length) {
+                int capacity = Math.multiplyExact(size, 2);
+                keys = Arrays.copyOf(keys, capacity);
+                seconds = Arrays.copyOf(seconds, capacity);
+                nanos = Arrays.copyOf(nanos, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+            }
+            keys[size] = key;
+            seconds[size] = second;
+            nanos[size] = nano;
+            offsets[size] = offset;
+            size++;
+        }
+
+        SegmentIndex toIndex() {
+            // Stable: among equal (key, asOf) the file order, hence "last written wins", survives
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            mergeSort(order, new int[size], 0, size);
+
+            int[] sortedKeys = new int[size];
+            int[] starts = new int[size + 1];
+            long[] sortedSeconds = new long[size];
+            int[] sortedNanos = new int[size];
+            long[] sortedOffsets = new long[size];
+            int keyCount = 0;
+            for (int i = 0; i < size; i++) {
+                int e = order[i];
+                if (keyCount == 0 || sortedKeys[keyCount - 1] != keys[e]) {
+                    sortedKeys[keyCount] = keys[e];
+                    starts[keyCount++] = i;
+                }
+                sortedSeconds[i] = seconds[e];
+                sortedNanos[i] = nanos[e];
+                sortedOffsets[i] = offsets[e];
+            }
+            starts[keyCount] = size;
+            return new SegmentIndex(Arrays.copyOf(sortedKeys, keyCount), Arrays.copyOf(starts, keyCount + 1),
+                    sortedSeconds, sortedNanos, sortedOffsets);
+        }
+
+        private void mergeSort(int[] order, int[] scratch, int from, int to) {
+            if (to - from < 2) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(order, scratch, from, mid);
+            mergeSort(order, scratch, mid, to);
+            if (compare(order[mid - 1], order[mid]) <= 0) {
+                return; // already in order, the common case for ticks uploaded in time order
+            }
+            System.arraycopy(order, from, scratch, from, to - from);
+            int left = from;
+            int right = mid;
+            for (int i = from; i < to; i++) {
+                if (right >= to || left < mid && compare(scratch[left], scratch[right]) <= 0) {
+                    order[i] = scratch[left++];
+                } else {
+                    order[i] = scratch[right++];
+                }
+            }
+        }
+
+        private int compare(int a, int b) {
+            int byKey = Integer.compare(keys[a], keys[b]);
+            return byKey != 0 ? byKey : SegmentIndex.compare(seconds[a], nanos[a], seconds[b], nanos[b]);
+        }
+    }
+}
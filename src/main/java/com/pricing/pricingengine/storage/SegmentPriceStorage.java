@@ -0,0 +1,418 @@
+package com.pricing.pricingengine.storage;
+
+import com.pricing.pricingengine.domain.BatchEntity;
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.repository.InstrumentDictionary;
+import com.pricing.pricingengine.service.BatchCompletedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Price rows in append-only segment files, one per batch, instead of price_record.
+ * <p>
+ * Uploads append one checksummed frame per chunk through {@link SegmentWriter} and record it in segment_frame
+ * within their transaction; a frame whose upload rolled back is simply never read. Completion indexes the
+ * committed frames per instrument, writes the index as the batch's manifest, and merges the newest record per
+ * instrument into latest_price in the completing transaction, so batch visibility is exactly the database
+ * path's. Point-in-time lookups go through a map from instrument key to the completed segments holding it,
+ * binary-search only those indexes and read one payload per instrument; read channels are opened on demand,
+ * at most {@code pricing.segment.open-files} at a time. Cancelling drops the files. Completed batches are
+ * reloaded from their manifests at startup.
+ * <p>
+ * Segment files are local to the node: this mode is meant for single-node deployments.
+ */
+@Component
+@ConditionalOnProperty(name = "pricing.storage.mode", havingValue = "segment")
+@DependsOn("entityManagerFactory") // reads price_batch and segment_frame at startup
+public class SegmentPriceStorage implements PriceStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentPriceStorage.class);
+
+    private static final Segment[] NO_SEGMENTS = {};
+
+    private static final String INSERT_FRAME_SQL =
+            "INSERT INTO segment_frame (batch_id, frame_offset, frame_length, row_count) VALUES (?, ?, ?, ?)";
+    private static final String FRAMES_SQL =
+            "SELECT frame_offset, frame_length FROM segment_frame WHERE batch_id = ? ORDER BY frame_offset";
+    private static final String FRAMES_END_SQL =
+            "SELECT COALESCE(MAX(frame_offset + frame_length), 0) FROM segment_frame WHERE batch_id = ?";
+    private static final String FRAME_ROWS_SQL =
+            "SELECT COALESCE(SUM(row_count), 0) FROM segment_frame WHERE batch_id = ?";
+    private static final String DELETE_FRAMES_SQL = "DELETE FROM segment_frame WHERE batch_id = ?";
+    private static final String COMPLETED_SQL =
+            "SELECT id, completed_at, completion_seq FROM price_batch WHERE status = 'COMPLETED' ORDER BY completed_at";
+
+    // Same rule as LatestPriceRepository#upsertFromBatch, one winner per row
+    private static final String MERGE_LATEST_SQL = """
+            MERGE INTO latest_price t
+            USING (SELECT CAST(? AS INTEGER) AS instrument_key,
+                          CAST(? AS TIMESTAMP(9) WITH TIME ZONE) AS as_of,
+                          CAST(? AS CHARACTER LARGE OBJECT) AS payload_json,
+                          CAST(? AS VARCHAR(255)) AS batch_id) s
+            ON t.instrument_key = s.instrument_key
+            WHEN MATCHED AND s.as_of >= t.as_of THEN
+                UPDATE SET as_of = s.as_of, payload_json = s.payload_json, payload_id = NULL, batch_id = s.batch_id
+            WHEN NOT MATCHED THEN
+                INSERT (instrument_key, as_of, payload_json, batch_id)
+                VALUES (s.instrument_key, s.as_of, s.payload_json, s.batch_id)
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final InstrumentDictionary instruments;
+    private final Path dir;
+    private final long regionSize;
+    private final int jdbcBatchSize;
+    private final SegmentChannels channels;
+
+    private final ConcurrentHashMap<String, SegmentWriter> writers = new ConcurrentHashMap<>();
+    /** Indexed by a completing transaction that has not ended yet. */
+    private final ConcurrentHashMap<String, Segment> pending = new ConcurrentHashMap<>();
+    /** Readable by point-in-time lookups. */
+    private final ConcurrentHashMap<String, Segment> completed = new ConcurrentHashMap<>();
+    /** The completed segments holding each instrument key, so a lookup touches no other segment. */
+    private final ConcurrentHashMap<Integer, Segment[]> byInstrument = new ConcurrentHashMap<>();
+    /**
+     * Every batch numbered up to {@code readableSeq} is in {@link #completed}; {@code readableAhead} holds the
+     * numbers above it already there, as after-commit listeners of concurrent completions may run out of order.
+     */
+    private final ReentrantLock readableLock = new ReentrantLock();
+    private volatile long readableSeq;
+    private final TreeSet<Long> readableAhead = new TreeSet<>();
+
+    public SegmentPriceStorage(JdbcTemplate jdbc,
+                               InstrumentDictionary instruments,
+                               @Value("${pricing.segment.dir:${java.io.tmpdir}/pricingengine/segments}") Path dir,
+                               @Value("${pricing.segment.region-size:64MB}") DataSize regionSize,
+                               @Value("${pricing.ingest.jdbc.batch-size:5000}") int jdbcBatchSize,
+                               @Value("${pricing.segment.open-files:256}") int openFiles) {
+        this.jdbc = jdbc;
+        this.instruments = instruments;
+        this.dir = dir;
+        this.regionSize = regionSize.toBytes();
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.channels = new SegmentChannels(openFiles);
+    }
+
+    /**
+     * A completed batch: its index, when it became visible and its completion number, 0 until the completion
+     * commits or for batches completed before numbering.
+     */
+    private record Segment(String batchId, SegmentIndex index, Instant completedAt, long completionSeq) {
+
+        Segment numbered(long completionSeq) {
+            return new Segment(batchId, index, completedAt, completionSeq);
+        }
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        Files.createDirectories(dir);
+        jdbc.query(COMPLETED_SQL, rs -> {
+            String batchId = rs.getString(1);
+            long completionSeq = rs.getLong(3);
+            if (Files.exists(segmentPath(batchId))) { // completed in another storage mode otherwise
+                publish(open(batchId, rs.getObject(2, OffsetDateTime.class).toInstant()).numbered(completionSeq));
+            }
+            readableSeq = Math.max(readableSeq, completionSeq);
+        });
+        log.info("Segment store at {} loaded with {} completed batches", dir, completed.size());
+    }
+
+    /**
+     * Payloads always go into the frame; {@code payloadIds} is never set in this mode.
+     */
+    @Override
+    public void write(BatchEntity batch, List<PriceRecord> records, int[] instrumentKeys, long[] payloadIds) {
+        String batchId = batch.getId();
+        ByteBuffer frame = SegmentFrames.encode(records, instrumentKeys);
+        int length = frame.remaining();
+        try {
+            long offset = writers.computeIfAbsent(batchId, this::openWriter).append(frame);
+            jdbc.update(INSERT_FRAME_SQL, batchId, offset, length, records.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Appending to the segment of batch " + batchId + " failed", e);
+        }
+    }
+
+    @Override
+    public int publishLatest(BatchEntity batch) {
+        String batchId = batch.getId();
+        try {
+            closeWriter(batchId); // no upload can append any more: the exclusive lock is held
+            // Replaces any left over from a completion that failed before publishing its event
+            Segment segment = index(batchId, batch.getCompletedAt());
+            pending.put(batchId, segment);
+            return mergeLatest(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Indexing the segment of batch " + batchId + " failed", e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onBatchCompleted(BatchCompletedEvent event) {
+        Segment segment = pending.remove(event.batchId());
+        if (segment != null) {
+            publish(segment.numbered(event.completionSeq()));
+        }
+        readableLock.lock();
+        try {
+            readableAhead.add(event.completionSeq());
+            while (!readableAhead.isEmpty() && readableAhead.first() <= readableSeq + 1) {
+                readableSeq = Math.max(readableSeq, readableAhead.pollFirst());
+            }
+        } finally {
+            readableLock.unlock();
+        }
+    }
+
+    /**
+     * Segments become readable after commit, when the completion's listener runs, so this can lag
+     * {@code CompletionSequence#committed()} briefly.
+     */
+    @Override
+    public long readableCompletionSeq() {
+        return readableSeq;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onBatchCompletionRolledBack(BatchCompletedEvent event) {
+        pending.remove(event.batchId());
+    }
+
+    @Override
+    public List<LatestPrice> findLastPricesAt(Collection<String> instrumentIds, Instant asOf, Instant completedBy,
+                                              Long completedUpTo) {
+        Map<String, Integer> keys = instruments.existingKeys(instrumentIds);
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<LatestPrice> prices = new ArrayList<>(keys.size());
+        try {
+            for (Map.Entry<String, Integer> instrument : keys.entrySet()) {
+                Segment best = null;
+                int bestEntry = -1;
+                Instant bestAsOf = null;
+                for (Segment segment : byInstrument.getOrDefault(instrument.getValue(), NO_SEGMENTS)) {
+                    if (completedBy != null && segment.completedAt().isAfter(completedBy)
+                            || completedUpTo != null && segment.completionSeq() > completedUpTo) {
+                        continue;
+                    }
+                    SegmentIndex index = segment.index();
+                    int entry = index.floor(instrument.getValue(), asOf);
+                    if (entry < 0) {
+                        continue;
+                    }
+                    Instant entryAsOf = index.asOf(entry);
+                    // Equal asOf: the later completion wins, as it would have in latest_price
+                    if (bestAsOf == null || entryAsOf.isAfter(bestAsOf)
+                            || entryAsOf.equals(bestAsOf) && completedLater(segment, best)) {
+                        best = segment;
+                        bestEntry = entry;
+                        bestAsOf = entryAsOf;
+                    }
+                }
+                if (best != null) {
+                    prices.add(new LatestPrice(instrument.getKey(), bestAsOf,
+                            payload(best, bestEntry), best.batchId()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading segment payloads failed", e);
+        }
+        return prices;
+    }
+
+    /**
+     * Drops the whole segment at once; {@code limit} does not apply.
+     */
+    @Override
+    public long purgeChunk(String batchId, int limit) {
+        try {
+            closeWriter(batchId);
+            Segment segment = completed.remove(batchId);
+            if (segment != null) {
+                unpublish(segment);
+            }
+            channels.close(segmentPath(batchId));
+            long rows = jdbc.queryForObject(FRAME_ROWS_SQL, Long.class, batchId);
+            jdbc.update(DELETE_FRAMES_SQL, batchId);
+            Files.deleteIfExists(segmentPath(batchId));
+            Files.deleteIfExists(manifestPath(batchId));
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Deleting the segment of batch " + batchId + " failed", e);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        for (String batchId : List.copyOf(writers.keySet())) {
+            try {
+                closeWriter(batchId);
+            } catch (IOException e) {
+                log.warn("Closing the segment of batch {} failed: {}", batchId, e.getMessage());
+            }
+        }
+        channels.closeAll();
+    }
+
+    /**
+     * Continues after the last committed frame, so frames of uploads that rolled back are overwritten.
+     */
+    private SegmentWriter openWriter(String batchId) {
+        try {
+            Files.createDirectories(dir);
+            long end = jdbc.queryForObject(FRAMES_END_SQL, Long.class, batchId);
+            return new SegmentWriter(segmentPath(batchId), end, regionSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Opening the segment of batch " + batchId + " failed", e);
+        }
+    }
+
+    private void closeWriter(String batchId) throws IOException {
+        SegmentWriter writer = writers.remove(batchId);
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Builds the index from the committed frames and persists it as the manifest.
+     */
+    private Segment index(String batchId, Instant completedAt) throws IOException {
+        List<SegmentIndex.Frame> frames = jdbc.query(FRAMES_SQL,
+                (rs, row) -> new SegmentIndex.Frame(rs.getLong(1), rs.getInt(2)), batchId);
+        Path segmentPath = segmentPath(batchId);
+        if (!Files.exists(segmentPath)) {
+            Files.createDirectories(dir);
+            Files.createFile(segmentPath); // a batch without rows still gets its (empty) segment
+        }
+        SegmentIndex index;
+        try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+            index = SegmentIndex.build(channel, frames);
+        }
+        index.writeManifest(manifestPath(batchId), batchId);
+        return new Segment(batchId, index, completedAt, 0);
+    }
+
+    /**
+     * A completed batch from its manifest, or re-indexed from its frames if the manifest is unusable.
+     */
+    private Segment open(String batchId, Instant completedAt) {
+        try {
+            return new Segment(batchId, SegmentIndex.readManifest(manifestPath(batchId), batchId), completedAt, 0);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Re-indexing batch {}, its manifest is unusable: {}", batchId, e.getMessage());
+        }
+        try {
+            return index(batchId, completedAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Opening the segment of batch " + batchId + " failed", e);
+        }
+    }
+
+    /**
+     * Makes a completed segment readable: into the per-instrument map first, so that it is found by the time
+     * {@link #completed} lists it.
+     */
+    private void publish(Segment segment) {
+        SegmentIndex index = segment.index();
+        for (int i = 0; i < index.instrumentCount(); i++) {
+            byInstrument.merge(index.key(i), new Segment[]{segment}, (held, added) -> {
+                Segment[] merged = Arrays.copyOf(held, held.length + 1);
+                merged[held.length] = added[0];
+                return merged;
+            });
+        }
+        completed.put(segment.batchId(), segment);
+    }
+
+    private void unpublish(Segment segment) {
+        SegmentIndex index = segment.index();
+        for (int i = 0; i < index.instrumentCount(); i++) {
+            byInstrument.computeIfPresent(index.key(i), (key, held) -> {
+                Segment[] rest = Arrays.stream(held).filter(s -> s != segment).toArray(Segment[]::new);
+                return rest.length > 0 ? rest : null;
+            });
+        }
+    }
+
+    /**
+     * Commit order, as the latest_price MERGE sees it; completedAt is stamped before the number is drawn, so
+     * it only decides between batches completed before numbering.
+     */
+    private static boolean completedLater(Segment segment, Segment than) {
+        if (segment.completionSeq() > 0 && than.completionSeq() > 0) {
+            return segment.completionSeq() > than.completionSeq();
+        }
+        return segment.completedAt().isAfter(than.completedAt());
+    }
+
+    private String payload(Segment segment, int entry) throws IOException {
+        long offset = segment.index().recordOffset(entry);
+        return channels.read(segmentPath(segment.batchId()), channel -> SegmentFrames.readPayload(channel, offset));
+    }
+
+    private int mergeLatest(Segment segment) throws IOException {
+        SegmentIndex index = segment.index();
+        List<Object[]> winners = new ArrayList<>(index.instrumentCount());
+        for (int i = 0; i < index.instrumentCount(); i++) {
+            int entry = index.newest(i);
+            winners.add(new Object[]{
+                    index.key(i),
+                    OffsetDateTime.ofInstant(index.asOf(entry), ZoneOffset.UTC),
+                    payload(segment, entry),
+                    segment.batchId()});
+        }
+        int changed = 0;
+        for (int[] counts : jdbc.batchUpdate(MERGE_LATEST_SQL, winners, jdbcBatchSize, (ps, row) -> {
+            ps.setInt(1, (Integer) row[0]);
+            ps.setObject(2, row[1]);
+            ps.setString(3, (String) row[2]);
+            ps.setString(4, (String) row[3]);
+        })) {
+            for (int count : counts) {
+                changed += Math.max(count, 0);
+            }
+        }
+        return changed;
+    }
+
+    private Path segmentPath(String batchId) {
+        return dir.resolve(fileName(batchId) + ".seg");
+    }
+
+    private Path manifestPath(String batchId) {
+        return dir.resolve(fileName(batchId) + ".idx");
+    }
+
+    /**
+     * Batch ids are arbitrary strings; the file name must not be able to escape the directory.
+     */
+    private static String fileName(String batchId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(batchId.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.pricing.pricingengine.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends frames to the segment file of one open batch through a memory-mapped region.
+ * <p>
+ * The file is mapped {@code regionSize} bytes at a time, starting at the current end; a frame that does not
+ * fit in what is left of the region starts a new one. Each append flushes just the frame's pages, so the
+ * frame is on disk before the caller records it in the database. Appends of concurrent uploads are serialized.
+ * <p>
+ * The file is never truncated: a mapping is only released once its buffer is garbage collected, and cutting
+ * a file short under a live mapping is undefined on some platforms. It therefore ends with the unwritten rest
+ * of its last region, which stays sparse where the file system allows; readers go by the committed frame
+ * offsets, never by the file length.
+ */
+final class SegmentWriter {
+
+    private final FileChannel channel;
+    private final long regionSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private MappedByteBuffer region; // guarded by lock
+    private long regionStart;        // guarded by lock
+    private long position;           // guarded by lock
+
+    /**
+     * @param position end of the last committed frame; anything after it is overwritten
+     */
+    SegmentWriter(Path path, long position, long regionSize) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.regionSize = regionSize;
+        this.position = position;
+    }
+
+    /**
+     * @return byte position of the frame in the file; the frame is durable on return
+     */
+    long append(ByteBuffer frame) throws IOException {
+        lock.lock();
+        try {
+            int length = frame.remaining();
+            if (region == null || position + length > regionStart + region.capacity()) {
+                regionStart = position;
+                region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(regionSize, length));
+            }
+            long offset = position;
+            int at = (int) (offset - regionStart);
+            region.put(at, frame, frame.position(), length);
+            region.force(at, length);
+            position += length;
+            return offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Syncs the file's metadata and closes it; every appended frame is already on disk.
+     */
+    void close() throws IOException {
+        lock.lock();
+        try {
+            region = null;
+            try {
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
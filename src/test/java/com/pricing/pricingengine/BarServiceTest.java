@@ -0,0 +1,115 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.dto.BarResponse;
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.repository.InstrumentDictionary;
+import com.pricing.pricingengine.repository.PriceFieldRepository;
+import com.pricing.pricingengine.service.BarService;
+import com.pricing.pricingengine.service.BatchService;
+import com.pricing.pricingengine.service.PriceQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "pricing.fields.extract=true",
+        "spring.datasource.url=jdbc:h2:mem:bars-db;DB_CLOSE_DELAY=-1"
+})
+class BarServiceTest extends BaseIntegrationTest {
+
+    private static final Instant BASE = Instant.parse("2025-10-07T09:00:00Z");
+
+    @Autowired
+    BatchService batchService;
+
+    @Autowired
+    BarService barService;
+
+    @Autowired
+    PriceFieldRepository fieldRepo;
+
+    @Autowired
+    InstrumentDictionary instruments;
+
+    @Autowired
+    PriceQueryService priceQueryService;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void bars_shouldAggregateExtractedFieldsOfCompletedBatches() throws Exception {
+        batchService.startBatch("bars-1");
+        batchService.uploadPrices("bars-1", List.of(
+                new PriceRecord("BAR-A", BASE.plusSeconds(5), "{\"meta\":{\"price\":1},\"price\":10.0,\"size\":100}"),
+                new PriceRecord("BAR-A", BASE.plusSeconds(20), "{\"size\":300,\"price\":\"12.5\"}"),
+                new PriceRecord("BAR-A", BASE.plusSeconds(40), "{\"price\":9.5}"),
+                new PriceRecord("BAR-A", BASE.plusSeconds(130), "{\"price\":11,\"size\":50}"),
+                new PriceRecord("BAR-A", BASE.plusSeconds(150), "{\"bid\":11.2}"),
+                new PriceRecord("BAR-B", BASE.plusSeconds(10), "{\"price\":200,\"size\":0}"),
+                new PriceRecord("BAR-B", BASE.plusSeconds(3600), "{\"price\":201,\"size\":1}")));
+        batchService.completeBatch("bars-1");
+
+        // Not completed: invisible
+        batchService.startBatch("bars-2");
+        batchService.uploadPrices("bars-2", List.of(new PriceRecord("BAR-A", BASE.plusSeconds(30), "{\"price\":99}")));
+
+        List<BarResponse> bars = barService.getBars(List.of("BAR-B", "BAR-A", "BAR-UNKNOWN"),
+                BASE, BASE.plusSeconds(300), Duration.ofMinutes(1));
+
+        assertThat(bars).containsExactly(
+                new BarResponse("BAR-B", BASE, 200, 200, 200, 200, 0, null, 1),
+                new BarResponse("BAR-A", BASE, 10, 12.5, 9.5, 9.5, 400, (10.0 * 100 + 12.5 * 300) / 400, 3),
+                new BarResponse("BAR-A", BASE.plusSeconds(120), 11, 11, 11, 11, 50, 11.0, 1));
+
+        mockMvc.perform(get("/api/prices/bars")
+                        .param("ids", "BAR-A")
+                        .param("from", BASE.toString())
+                        .param("to", BASE.plusSeconds(300).toString())
+                        .param("bucket", "PT5M"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].open").value(10.0))
+                .andExpect(jsonPath("$[0].close").value(11.0))
+                .andExpect(jsonPath("$[0].volume").value(450.0))
+                .andExpect(jsonPath("$[0].ticks").value(4));
+    }
+
+    @Test
+    void bars_priceResentInALaterBatch_shouldReplaceTheEarlierTick() {
+        complete("bars-3",
+                new PriceRecord("BAR-C", BASE.plusSeconds(5), "{\"price\":10,\"size\":1}"),
+                new PriceRecord("BAR-C", BASE.plusSeconds(10), "{\"price\":20,\"size\":1}"));
+        long beforeResend = priceQueryService.readableCompletionSeq();
+        complete("bars-4", new PriceRecord("BAR-C", BASE.plusSeconds(10), "{\"price\":30,\"size\":2}"));
+
+        assertThat(barService.getBars(List.of("BAR-C"), BASE, BASE.plusSeconds(60), Duration.ofMinutes(1)))
+                .containsExactly(new BarResponse("BAR-C", BASE, 10, 30, 10, 30, 3, (10.0 + 30.0 * 2) / 3, 2));
+
+        // A request pinned before the resend still sees the first price
+        var ticks = fieldRepo.findTicks(instruments.existingKeys(List.of("BAR-C")),
+                BASE, BASE.plusSeconds(60), beforeResend, 100).get("BAR-C");
+        assertThat(ticks.count()).isEqualTo(2);
+        assertThat(ticks.prices()[1]).isEqualTo(20.0);
+    }
+
+    @Test
+    void bars_shouldRejectTooManyBuckets() {
+        assertThatThrownBy(() -> barService.getBars(List.of("BAR-A"),
+                BASE, BASE.plus(Duration.ofDays(30)), Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> barService.getBars(List.of("BAR-A"), BASE, BASE, Duration.ofMinutes(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
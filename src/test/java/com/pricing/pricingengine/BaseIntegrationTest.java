@@ -1,10 +1,74 @@
 package com.pricing.pricingengine;
 
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.service.BatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Shared context of the integration tests. Every test class that changes its configuration starts a context
+ * of its own, and must then point {@code spring.datasource.url} at a database of its own: with
+ * {@code create-drop}, a new context on the same database drops the schema under the cached ones.
+ */
 @SpringBootTest
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 //@Transactional
-class BaseIntegrationTest {}
+class BaseIntegrationTest {
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Starts, fills and completes a batch in one go.
+     */
+    void complete(String batchId, List<PriceRecord> records) {
+        batchService.startBatch(batchId);
+        batchService.uploadPrices(batchId, records);
+        batchService.completeBatch(batchId);
+    }
+
+    void complete(String batchId, PriceRecord... records) {
+        complete(batchId, List.of(records));
+    }
+
+    /**
+     * Sends chunk {@code seq} of a resumable upload as CSV.
+     */
+    ResultActions sendChunk(String batchId, int seq, byte[] body, String checksum) throws Exception {
+        return sendChunk(batchId, seq, body, checksum, request -> request);
+    }
+
+    ResultActions sendChunk(String batchId, int seq, byte[] body, String checksum, RequestPostProcessor client)
+            throws Exception {
+        return mockMvc.perform(put("/api/batches/{id}/chunks/{seq}", batchId, seq)
+                .contentType("text/csv")
+                .header("X-Chunk-Checksum", checksum)
+                .content(body)
+                .with(client));
+    }
+
+    /**
+     * The chunk checksum the upload expects: CRC32C in hex.
+     */
+    static String crc(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return HexFormat.of().toHexDigits((int) crc.getValue());
+    }
+}
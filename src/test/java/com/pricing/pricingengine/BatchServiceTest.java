@@ -3,14 +3,22 @@ package com.pricing.pricingengine;
 import com.pricing.pricingengine.domain.BatchStatus;
 import com.pricing.pricingengine.dto.PriceRecord;
 import com.pricing.pricingengine.repository.BatchRepository;
+import com.pricing.pricingengine.repository.InstrumentDictionary;
+import com.pricing.pricingengine.repository.LatestPriceRepository;
+import com.pricing.pricingengine.service.BatchPurger;
 import com.pricing.pricingengine.service.BatchService;
 import com.pricing.pricingengine.service.PriceQueryService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
@@ -34,6 +42,24 @@ class BatchServiceTest extends BaseIntegrationTest {
     @Autowired
     BatchRepository batchRepository;
 
+    @Autowired
+    LatestPriceRepository latestPriceRepository;
+
+    @Autowired
+    InstrumentDictionary instrumentDictionary;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    BatchPurger batchPurger;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @Test
     void startUploadComplete_shouldSucceed() {
         String batchId = "batch-1";
@@ -55,9 +81,10 @@ class BatchServiceTest extends BaseIntegrationTest {
         assertThatThrownBy(() ->
                 batchService.uploadPrices(
                         "missing-batch",
-                        List.of(new PriceRecord("AAPL", Instant.now(), "{}"))
+                        List.of(new PriceRecord("NEVER-MISSING", Instant.now(), "{}"))
                 )
         ).isInstanceOf(IllegalStateException.class);
+        assertThat(instrumentCount("NEVER-MISSING")).isZero();
     }
 
     @Test
@@ -68,9 +95,15 @@ class BatchServiceTest extends BaseIntegrationTest {
 
         assertThatThrownBy(() ->
                 batchService.uploadPrices(batchId,
-                        List.of(new PriceRecord("AAPL", Instant.now(), "{}"))
+                        List.of(new PriceRecord("NEVER-COMPLETED", Instant.now(), "{}"))
                 )
         ).isInstanceOf(IllegalStateException.class);
+        assertThat(instrumentCount("NEVER-COMPLETED")).isZero();
+    }
+
+    private int instrumentCount(String instrumentId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM instrument WHERE instrument_id = ?", Integer.class, instrumentId);
     }
 
     @Test
@@ -154,7 +187,7 @@ class BatchServiceTest extends BaseIntegrationTest {
     }
 
     /*
-    *  Concurrent Uploads Are Serialized
+    *  Concurrent Uploads Of One Batch Do Not Corrupt Data
     */
     @Test
     void concurrentUploads_shouldNotCorruptData() throws Exception {
@@ -200,5 +233,247 @@ class BatchServiceTest extends BaseIntegrationTest {
         assertThat(prices.get(0).getAsOf())
                 .isEqualTo(Instant.parse("2024-01-01T11:00:00Z"));
     }
-}
 
+    /*
+    *  Snapshot Keeps The Newest Price When An Older Batch Completes Later
+    */
+    @Test
+    void lastPriceQuery_olderBatchCompletedLater_shouldNotOverride() {
+        batchService.startBatch("batch-newer");
+        batchService.startBatch("batch-older");
+        batchService.uploadPrices("batch-newer", List.of(
+                new PriceRecord("NFLX", Instant.parse("2024-01-01T11:00:00Z"), "{\"price\":2}")
+        ));
+        batchService.uploadPrices("batch-older", List.of(
+                new PriceRecord("NFLX", Instant.parse("2024-01-01T10:00:00Z"), "{\"price\":1}")
+        ));
+
+        batchService.completeBatch("batch-newer");
+        batchService.completeBatch("batch-older");
+
+        var prices = priceQueryService.getLastPrices(Set.of("NFLX"));
+        assertThat(prices).hasSize(1);
+        assertThat(prices.get(0).getPayloadJson()).isEqualTo("{\"price\":2}");
+    }
+
+    @Test
+    void completeBatch_shouldMaterializeLatestPrice() {
+        String batchId = "batch-latest";
+
+        batchService.startBatch(batchId);
+        batchService.uploadPrices(batchId, List.of(
+                new PriceRecord("ORCL", Instant.parse("2024-01-01T10:00:00Z"), "{\"price\":1}"),
+                new PriceRecord("ORCL", Instant.parse("2024-01-01T12:00:00Z"), "{\"price\":3}"),
+                new PriceRecord("ORCL", Instant.parse("2024-01-01T11:00:00Z"), "{\"price\":2}")
+        ));
+        int key = instrumentDictionary.existingKeys(Set.of("ORCL")).get("ORCL");
+        assertThat(latestPriceRepository.findById(key)).isEmpty();
+
+        batchService.completeBatch(batchId);
+
+        var latest = latestPriceRepository.findById(key).orElseThrow();
+        assertThat(latest.getAsOf()).isEqualTo(Instant.parse("2024-01-01T12:00:00Z"));
+        assertThat(latest.getBatchId()).isEqualTo(batchId);
+    }
+
+    @Test
+    void uploadPrices_shouldStoreOneDictionaryKeyPerInstrument() {
+        Instant asOf = Instant.parse("2024-03-01T10:00:00Z");
+        for (String batchId : List.of("batch-dict-1", "batch-dict-2")) {
+            batchService.startBatch(batchId);
+            batchService.uploadPrices(batchId, List.of(
+                    new PriceRecord("DICT-A", asOf, "{\"price\":1}"),
+                    new PriceRecord("DICT-B", asOf, "{\"price\":2}"),
+                    new PriceRecord("DICT-A", asOf.plusSeconds(1), "{\"price\":3}")
+            ));
+            batchService.completeBatch(batchId);
+        }
+
+        Integer instruments = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM instrument WHERE instrument_id LIKE 'DICT-%'", Integer.class);
+        assertThat(instruments).isEqualTo(2);
+        assertThat(priceQueryService.getLastPrices(Set.of("DICT-A", "DICT-B", "DICT-C"), asOf, null))
+                .extracting(p -> p.getInstrumentId() + "=" + p.getPayloadJson())
+                .containsExactlyInAnyOrder("DICT-A={\"price\":1}", "DICT-B={\"price\":2}");
+    }
+
+    /*
+    *  Chunks Larger Than One Id Block Get Unique Ids
+    */
+    @Test
+    void uploadLargeChunk_shouldPersistEveryRow() {
+        String batchId = "batch-large-chunk";
+        Instant base = Instant.parse("2025-12-15T10:00:00Z");
+        List<PriceRecord> records = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            records.add(new PriceRecord("BULK" + (i % 100), base.plusSeconds(i), "{\"price\":" + i + "}"));
+        }
+
+        batchService.startBatch(batchId);
+        batchService.uploadPrices(batchId, records);
+        batchService.uploadPrices(batchId, records.subList(0, 10));
+        batchService.completeBatch(batchId);
+
+        var prices = priceQueryService.getLastPrices(Set.of("BULK0", "BULK99"));
+        assertThat(prices).extracting(p -> p.getAsOf())
+                .containsExactlyInAnyOrder(base.plusSeconds(2400), base.plusSeconds(2499));
+    }
+
+    /*
+    *  Completion Is Linearizable Against Parallel Uploads: Every Accepted Chunk Is Kept, No Late Write Lands
+    */
+    @Test
+    void parallelUploadsRacingCompletion_shouldKeepExactlyAcceptedChunks() throws Exception {
+        String batchId = "batch-parallel-complete";
+        Instant base = Instant.parse("2025-12-15T10:00:00Z");
+        AtomicInteger accepted = new AtomicInteger();
+        batchService.startBatch(batchId);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            int producer = t;
+            executor.submit(() -> {
+                for (int chunk = 0; chunk < 20; chunk++) {
+                    try {
+                        batchService.uploadPrices(batchId, List.of(
+                                new PriceRecord("PAR" + producer, base.plusSeconds(chunk), "{}"),
+                                new PriceRecord("PAR" + producer, base.plusSeconds(chunk), "{}")
+                        ));
+                        accepted.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        return; // batch completed underneath us
+                    }
+                }
+            });
+        }
+        Thread.sleep(50);
+        batchService.completeBatch(batchId);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(15, TimeUnit.SECONDS)).isTrue();
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM price_record WHERE batch_id = ?", Integer.class, batchId);
+        assertThat(rows).isEqualTo(accepted.get() * 2);
+    }
+
+    /*
+    *  Cancelled Batch Rows Are Purged In The Background
+    */
+    @Test
+    void cancelledBatch_shouldBePurgedInChunks() throws Exception {
+        String batchId = "batch-purge";
+        Instant base = Instant.parse("2025-12-15T10:00:00Z");
+        List<PriceRecord> records = new ArrayList<>();
+        for (int i = 0; i < 12_000; i++) {
+            records.add(new PriceRecord("PURGE" + (i % 50), base.plusMillis(i), "{}"));
+        }
+        batchService.startBatch(batchId);
+        batchService.uploadPrices(batchId, records);
+
+        batchService.cancelBatch(batchId);
+
+        for (int i = 0; i < 200 && !"PURGED".equals(batchPurger.status(batchId).orElseThrow().state()); i++) {
+            Thread.sleep(50);
+        }
+        var status = batchPurger.status(batchId).orElseThrow();
+        assertThat(status.state()).isEqualTo("PURGED");
+        assertThat(status.rowsDeleted()).isEqualTo(12_000);
+        assertThat(batchRepository.findById(batchId).orElseThrow().getPurgedAt()).isNotNull();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM price_record WHERE batch_id = ?", Integer.class, batchId)).isZero();
+    }
+
+    @Test
+    void uploadCompleteAndQuery_shouldRecordMetrics() {
+        String batchId = "batch-metrics";
+        double rowsBefore = meterRegistry.get("pricing.ingest.rows").counter().count();
+        long queriesBefore = meterRegistry.get("pricing.query.last-prices")
+                .tag("kind", "latest").tag("size", "le1").timer().count();
+
+        batchService.startBatch(batchId);
+        batchService.uploadPrices(batchId, List.of(
+                new PriceRecord("MET-1", Instant.now(), "{}"),
+                new PriceRecord("MET-2", Instant.now(), "{}")));
+        batchService.completeBatch(batchId);
+        priceQueryService.getLastPrices(Set.of("MET-1"));
+
+        assertThat(meterRegistry.get("pricing.ingest.rows").counter().count()).isEqualTo(rowsBefore + 2);
+
+        // Rows of an upload that rolls back with the caller's transaction are not counted
+        batchService.startBatch(batchId + "-rolled-back");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            batchService.uploadPrices(batchId + "-rolled-back", List.of(new PriceRecord("MET-3", Instant.now(), "{}")));
+            status.setRollbackOnly();
+        });
+        assertThat(meterRegistry.get("pricing.ingest.rows").counter().count()).isEqualTo(rowsBefore + 2);
+        assertThat(meterRegistry.get("pricing.ingest.chunk.persist").timer().count()).isPositive();
+        assertThat(meterRegistry.get("pricing.lock.hold").tag("mode", "exclusive").timer().count()).isPositive();
+        assertThat(meterRegistry.get("pricing.query.last-prices").tag("kind", "latest").tag("size", "le1").timer().count())
+                .isEqualTo(queriesBefore + 1);
+        assertThat(meterRegistry.get("pricing.lock.live").gauge().value()).isZero();
+    }
+
+    @Test
+    void pointInTimeQuery_sameAsOfInTwoBatches_shouldReturnTheLaterCompletion() {
+        Instant asOf = Instant.parse("2025-01-11T10:00:00Z");
+        batchService.startBatch("tie-a");
+        batchService.startBatch("tie-b");
+        // tie-a writes first but completes last
+        batchService.uploadPrices("tie-a", List.of(new PriceRecord("TIE-X", asOf, "{\"p\":\"a\"}")));
+        batchService.uploadPrices("tie-b", List.of(new PriceRecord("TIE-X", asOf, "{\"p\":\"b\"}")));
+        batchService.completeBatch("tie-b");
+        batchService.completeBatch("tie-a");
+
+        assertThat(priceQueryService.getLastPrices(Set.of("TIE-X"), asOf.plusSeconds(1), null))
+                .extracting(p -> p.getBatchId() + "=" + p.getPayloadJson())
+                .containsExactly("tie-a={\"p\":\"a\"}");
+        assertThat(priceQueryService.getLastPrices(Set.of("TIE-X")))
+                .extracting(p -> p.getBatchId())
+                .containsExactly("tie-a");
+    }
+
+    @Test
+    void pointInTimeQuery_shouldHonourAsOfAndCompletionCutoffs() {
+        Instant base = Instant.parse("2025-01-10T10:00:00Z");
+
+        batchService.startBatch("pit-1");
+        batchService.uploadPrices("pit-1", List.of(
+                new PriceRecord("PIT-X", base, "{\"p\":1}"),
+                new PriceRecord("PIT-X", base.plusSeconds(7200), "{\"p\":3}")));
+        batchService.completeBatch("pit-1");
+
+        Instant afterFirst = Instant.now();
+        long afterFirstSeq = priceQueryService.readableCompletionSeq();
+
+        batchService.startBatch("pit-2");
+        batchService.uploadPrices("pit-2", List.of(
+                new PriceRecord("PIT-X", base.plusSeconds(3600), "{\"p\":2}"),
+                new PriceRecord("PIT-Y", base.plusSeconds(3600), "{\"p\":2}")));
+        batchService.completeBatch("pit-2");
+
+        // Open batch: never visible
+        batchService.startBatch("pit-3");
+        batchService.uploadPrices("pit-3", List.of(new PriceRecord("PIT-X", base.plusSeconds(5400), "{}")));
+
+        Set<String> ids = Set.of("PIT-X", "PIT-Y");
+        Instant cutoff = base.plusSeconds(6300);
+
+        assertThat(priceQueryService.getLastPrices(ids, cutoff, null))
+                .extracting(p -> p.getInstrumentId() + "@" + p.getBatchId())
+                .containsExactlyInAnyOrder("PIT-X@pit-2", "PIT-Y@pit-2");
+
+        assertThat(priceQueryService.getLastPrices(ids, cutoff, afterFirst))
+                .extracting(p -> p.getInstrumentId() + "@" + p.getAsOf())
+                .containsExactly("PIT-X@" + base);
+
+        assertThat(priceQueryService.getLastPrices(ids, null, afterFirst))
+                .extracting(p -> p.getInstrumentId() + "@" + p.getAsOf())
+                .containsExactly("PIT-X@" + base.plusSeconds(7200));
+
+        // Pinned to the completion number read after the first batch
+        assertThat(priceQueryService.readableCompletionSeq()).isEqualTo(afterFirstSeq + 1);
+        assertThat(priceQueryService.getLastPrices(ids, cutoff, null, afterFirstSeq))
+                .extracting(p -> p.getInstrumentId() + "@" + p.getAsOf())
+                .containsExactly("PIT-X@" + base);
+    }
+}
@@ -0,0 +1,63 @@
+package com.pricing.pricingengine;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ChunkUploadServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void chunks_shouldBePersistedOnceAndReportedForResume() throws Exception {
+        String batchId = "batch-chunked";
+        byte[] chunk0 = "CHK-A,2025-08-01T10:00:00Z,{\"p\":1}\nCHK-B,2025-08-01T10:00:00Z,{\"p\":1}\n"
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] chunk2 = "CHK-A,2025-08-01T10:00:02Z,{\"p\":3}\n".getBytes(StandardCharsets.UTF_8);
+
+        sendChunk(batchId, 0, chunk0, crc(chunk0))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(2))
+                .andExpect(jsonPath("$.alreadyCommitted").value(false));
+        sendChunk(batchId, 2, chunk2, crc(chunk2)).andExpect(status().isOk());
+
+        // Retry after a lost response: acknowledged, nothing written twice
+        sendChunk(batchId, 0, chunk0, crc(chunk0))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alreadyCommitted").value(true));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM price_record WHERE batch_id = ?", Integer.class, batchId)).isEqualTo(3);
+
+        mockMvc.perform(get("/api/batches/{id}/chunks", batchId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committedChunks").value(2))
+                .andExpect(jsonPath("$.committedRows").value(3))
+                .andExpect(jsonPath("$.firstMissing").value(1));
+
+        // Same number, other content
+        sendChunk(batchId, 2, chunk0, crc(chunk0)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void chunk_withWrongChecksum_shouldBeRejectedWithoutWriting() throws Exception {
+        String batchId = "batch-chunked-corrupt";
+        byte[] chunk = "CHK-C,2025-08-01T10:00:00Z,{\"p\":1}\n".getBytes(StandardCharsets.UTF_8);
+
+        sendChunk(batchId, 0, chunk, "00000000").andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/batches/{id}/chunks", batchId))
+                .andExpect(jsonPath("$.committedChunks").value(0));
+    }
+}
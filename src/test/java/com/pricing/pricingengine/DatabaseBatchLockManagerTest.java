@@ -0,0 +1,135 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.domain.BatchStatus;
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.lockmanager.BatchLockManager;
+import com.pricing.pricingengine.lockmanager.DatabaseBatchLockManager;
+import com.pricing.pricingengine.repository.BatchRepository;
+import com.pricing.pricingengine.repository.CompletionSequence;
+import com.pricing.pricingengine.repository.LatestPriceRepository;
+import com.pricing.pricingengine.service.BatchService;
+import com.pricing.pricingengine.service.LatestPriceStore;
+import com.pricing.pricingengine.service.LatestPricesChangedEvent;
+import com.pricing.pricingengine.service.SnapshotFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestPropertySource(properties = {
+        "pricing.lock.mode=database",
+        "spring.datasource.url=jdbc:h2:mem:lock-db;DB_CLOSE_DELAY=-1"
+})
+class DatabaseBatchLockManagerTest extends BaseIntegrationTest {
+
+    @Autowired
+    BatchService batchService;
+
+    @Autowired
+    BatchRepository batchRepository;
+
+    @Autowired
+    BatchLockManager lockManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    LatestPriceRepository latestPriceRepository;
+
+    @Autowired
+    CompletionSequence completionSequence;
+
+    @Autowired
+    SnapshotFile snapshotFile;
+
+    @Test
+    void databaseModeIsActive() {
+        assertThat(lockManager).isInstanceOf(DatabaseBatchLockManager.class);
+    }
+
+    @Test
+    void latestPrices_shouldCatchUpWithBatchesCompletedOnAnotherNode() {
+        // A second node on the same database: it never hears of this node's completions
+        List<Object> announced = new CopyOnWriteArrayList<>();
+        LatestPriceStore otherNode = new LatestPriceStore(latestPriceRepository, batchRepository,
+                completionSequence, snapshotFile, announced::add);
+        ReflectionTestUtils.invokeMethod(otherNode, "load");
+        long generation = otherNode.generation();
+
+        complete("db-lock-follow", new PriceRecord("DB-FOLLOW", Instant.parse("2025-12-18T10:00:00Z"), "{}"));
+        assertThat(otherNode.get(List.of("DB-FOLLOW"))).isEmpty();
+
+        assertThat(otherNode.catchUp()).isEqualTo(1);
+        assertThat(otherNode.get(List.of("DB-FOLLOW")))
+                .extracting(LatestPrice::getBatchId)
+                .containsExactly("db-lock-follow");
+        assertThat(otherNode.generation()).isGreaterThan(generation);
+        assertThat(announced).singleElement()
+                .isInstanceOfSatisfying(LatestPricesChangedEvent.class,
+                        event -> assertThat(event.batchId()).isEqualTo("db-lock-follow"));
+
+        // Merged once only
+        assertThat(otherNode.catchUp()).isZero();
+        assertThat(announced).hasSize(1);
+    }
+
+    @Test
+    void uploadAfterComplete_shouldFail() {
+        String batchId = "db-lock-complete";
+        batchService.startBatch(batchId);
+        batchService.uploadPrices(batchId, List.of(new PriceRecord("DB", Instant.now(), "{}")));
+        batchService.completeBatch(batchId);
+
+        assertThatThrownBy(() ->
+                batchService.uploadPrices(batchId, List.of(new PriceRecord("DB", Instant.now(), "{}")))
+        ).isInstanceOf(IllegalStateException.class);
+        assertThat(batchRepository.findById(batchId).orElseThrow().getStatus()).isEqualTo(BatchStatus.COMPLETED);
+    }
+
+    @Test
+    void parallelUploadsRacingCompletion_shouldKeepExactlyAcceptedChunks() throws Exception {
+        String batchId = "db-lock-race";
+        Instant base = Instant.parse("2025-12-15T10:00:00Z");
+        AtomicInteger accepted = new AtomicInteger();
+        batchService.startBatch(batchId);
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        for (int t = 0; t < 6; t++) {
+            int producer = t;
+            executor.submit(() -> {
+                for (int chunk = 0; chunk < 20; chunk++) {
+                    try {
+                        batchService.uploadPrices(batchId, List.of(
+                                new PriceRecord("DBR" + producer, base.plusSeconds(chunk), "{}")));
+                        accepted.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        return; // batch completed underneath us
+                    }
+                }
+            });
+        }
+        Thread.sleep(50);
+        batchService.completeBatch(batchId);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM price_record WHERE batch_id = ?", Integer.class, batchId);
+        assertThat(rows).isEqualTo(accepted.get());
+        assertThat(lockManager.liveLocks()).isZero();
+    }
+}
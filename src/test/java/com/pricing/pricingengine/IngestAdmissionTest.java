@@ -0,0 +1,144 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.exception.AdmissionRejectedException;
+import com.pricing.pricingengine.service.BatchService;
+import com.pricing.pricingengine.service.IngestAdmission;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "pricing.admission.producer.bytes-per-second=100",
+        "pricing.admission.producer.burst-bytes=200B",
+        "pricing.admission.max-wait=200ms",
+        "spring.datasource.url=jdbc:h2:mem:admission-db;DB_CLOSE_DELAY=-1"
+})
+class IngestAdmissionTest extends BaseIntegrationTest {
+
+    @Autowired
+    BatchService batchService;
+
+    @Autowired
+    IngestAdmission admission;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void producerOverItsRate_shouldGet429WithRetryAfter() throws Exception {
+        // ~1 KB: admitted on a full budget, then leaves the producer about 8 seconds in debt
+        byte[] chunk = "ADM-A,2025-09-01T10:00:00Z,{\"price\":1.0}\n".repeat(25).getBytes(StandardCharsets.UTF_8);
+
+        sendChunk("adm-1", 0, chunk, crc(chunk), from("10.0.0.1")).andExpect(status().isOk());
+        sendChunk("adm-1", 1, chunk, crc(chunk), from("10.0.0.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", matchesPattern("[5-9]")));
+
+        // Other client addresses have budgets of their own
+        sendChunk("adm-1", 1, chunk, crc(chunk), from("10.0.0.2")).andExpect(status().isOk());
+
+        assertThat(registry.get("pricing.admission.rejected").tag("reason", "rate").counter().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void writes_shouldBeTurnedAwayAtTheDoorButWaitOnceAdmitted() throws Exception {
+        batchService.startBatch("adm-2");
+        List<PriceRecord> records = List.of(new PriceRecord("ADM-B", Instant.parse("2025-09-01T10:00:00Z"), "{}"));
+
+        // Test pool of 10 connections, 2 reserved for queries
+        for (int i = 0; i < 8; i++) {
+            admission.acquire();
+        }
+        CompletableFuture<Void> upload;
+        try {
+            assertThat(registry.get("pricing.admission.writes").gauge().value()).isEqualTo(8);
+            assertThatThrownBy(() -> admission.admit("10.0.2.1", 10))
+                    .isInstanceOf(AdmissionRejectedException.class);
+
+            // An admitted upload outwaits max-wait instead of failing half written
+            upload = CompletableFuture.runAsync(() -> batchService.uploadPrices("adm-2", records));
+            Thread.sleep(500);
+            assertThat(upload).isNotDone();
+            assertThat(registry.get("pricing.admission.queued").gauge().value()).isEqualTo(1);
+        } finally {
+            for (int i = 0; i < 8; i++) {
+                admission.release();
+            }
+        }
+
+        upload.get(5, TimeUnit.SECONDS);
+        assertThat(registry.get("pricing.admission.writes").gauge().value()).isZero();
+        assertThat(registry.get("pricing.admission.rejected").tag("reason", "timeout").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void producerBuckets_shouldBeCappedLeastRecentlyUsedFirst() {
+        IngestAdmission capped = new IngestAdmission(10, 2, 64, Duration.ofMillis(200), 100,
+                DataSize.ofBytes(200), 2, new SimpleMeterRegistry());
+
+        capped.admit("10.0.1.1", 1000);
+        assertThatThrownBy(() -> capped.admit("10.0.1.1", 1))
+                .isInstanceOf(AdmissionRejectedException.class);
+
+        // Two more producers push the indebted one out
+        capped.admit("10.0.1.2", 1);
+        capped.admit("10.0.1.3", 1);
+        capped.admit("10.0.1.1", 1);
+    }
+
+    @Test
+    void multipartUploads_shouldBeChargedTheSizeOfTheirFiles() throws Exception {
+        // The multipart request carries no length of its own; its ~1 KB file is what gets charged
+        byte[] csv = "ADM-C,2025-09-01T10:00:00Z,{\"price\":1.0}\n".repeat(25).getBytes(StandardCharsets.UTF_8);
+        MockMultipartFile file = new MockMultipartFile("file", "adm.csv", "text/csv", csv);
+
+        mockMvc.perform(multipart("/api/batches/adm-3/upload").file(file).with(from("10.0.3.1")))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(multipart("/api/batches/adm-3/upload").file(file).with(from("10.0.3.1")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void uploadsOfUnknownLength_shouldBeChargedWhatWasRead() {
+        IngestAdmission limited = new IngestAdmission(10, 2, 64, Duration.ofMillis(200), 100,
+                DataSize.ofBytes(200), 10, new SimpleMeterRegistry());
+
+        limited.admit("10.0.4.1", -1);
+        limited.charge("10.0.4.1", 1000);
+        assertThatThrownBy(() -> limited.admit("10.0.4.1", -1))
+                .isInstanceOf(AdmissionRejectedException.class);
+    }
+
+    private static RequestPostProcessor from(String remoteAddress) {
+        return request -> {
+            request.setRemoteAddr(remoteAddress);
+            return request;
+        };
+    }
+}
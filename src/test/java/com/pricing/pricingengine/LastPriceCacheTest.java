@@ -0,0 +1,100 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.service.LastPriceCache;
+import com.pricing.pricingengine.service.LatestPriceStore;
+import com.pricing.pricingengine.service.PriceQueryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class LastPriceCacheTest extends BaseIntegrationTest {
+
+    private static final Instant BASE = Instant.parse("2025-11-03T09:00:00Z");
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    PriceQueryService queryService;
+
+    @Autowired
+    LatestPriceStore store;
+
+    @Test
+    void lastPrices_shouldAnswerNotModifiedUntilABatchCompletes() throws Exception {
+        complete("cache-1", new PriceRecord("CCH-A", BASE, "{\"p\":1}"));
+
+        String etag = mockMvc.perform(query("[\"CCH-A\",\"CCH-B\"]", null))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].payloadJson").value("{\"p\":1}"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        // Same set in another order is the same query
+        mockMvc.perform(query("[\"CCH-B\",\"CCH-A\"]", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        complete("cache-2", new PriceRecord("CCH-A", BASE.plusSeconds(1), "{\"p\":2}"));
+
+        String next = mockMvc.perform(query("[\"CCH-A\",\"CCH-B\"]", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].payloadJson").value("{\"p\":2}"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(next).isNotEqualTo(etag);
+    }
+
+    @Test
+    void lastPrices_repeatedQuery_shouldBeServedFromCache() throws Exception {
+        complete("cache-3", new PriceRecord("CCH-C", BASE, "{\"p\":3}"));
+        double hits = meterRegistry.get("pricing.query.cache").tag("result", "hit").counter().count();
+
+        mockMvc.perform(query("[\"CCH-C\"]", null)).andExpect(status().isOk());
+        mockMvc.perform(query("[\"CCH-C\"]", null))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].instrumentId").value("CCH-C"));
+
+        assertThat(meterRegistry.get("pricing.query.cache").tag("result", "hit").counter().count())
+                .isEqualTo(hits + 1);
+    }
+
+    @Test
+    void lastPrices_etagOfAnotherBoot_shouldNotMatch() throws Exception {
+        complete("cache-4", new PriceRecord("CCH-D", BASE, "{\"p\":4}"));
+
+        String etag = mockMvc.perform(query("[\"CCH-D\"]", null))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // A restarted or other node may be at the same generation with different prices behind it
+        LastPriceCache otherBoot = new LastPriceCache(queryService, store, new SimpleMeterRegistry(), 16);
+        LastPriceCache.Result result = otherBoot.lookup(Set.of("CCH-D"), null, null, etag);
+        assertThat(result.notModified()).isFalse();
+        assertThat(result.etag()).isNotEqualTo(etag);
+    }
+
+    private static MockHttpServletRequestBuilder query(String ids, String ifNoneMatch) {
+        var request = post("/api/prices/last")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"instrumentIds\":" + ids + "}");
+        return ifNoneMatch == null ? request : request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+    }
+}
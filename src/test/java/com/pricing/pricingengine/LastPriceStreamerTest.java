@@ -0,0 +1,97 @@
+package com.pricing.pricingengine;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pricing.pricingengine.dto.PriceRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "pricing.query.ndjson.chunk-size=64",
+        "pricing.query.ndjson.parallelism=3",
+        "spring.datasource.url=jdbc:h2:mem:ndjson-db;DB_CLOSE_DELAY=-1"
+})
+class LastPriceStreamerTest extends BaseIntegrationTest {
+
+    private static final Instant BASE = Instant.parse("2025-09-01T08:00:00Z");
+    private static final int INSTRUMENTS = 500;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void ndjson_shouldStreamOneLinePerPriceInChunks() throws Exception {
+        List<PriceRecord> first = new ArrayList<>();
+        List<PriceRecord> second = new ArrayList<>();
+        for (int i = 0; i < INSTRUMENTS; i++) {
+            first.add(new PriceRecord("ND" + i, BASE, "{\"v\":1}"));
+            second.add(new PriceRecord("ND" + i, BASE.plusSeconds(60), "{\"v\":2}"));
+        }
+        complete("ndjson-1", first);
+        complete("ndjson-2", second);
+
+        // Every instrument plus some that never had a price
+        String ids = IntStream.range(0, INSTRUMENTS + 20)
+                .mapToObj(i -> "\"ND" + i + "\"")
+                .collect(Collectors.joining(","));
+
+        List<JsonNode> latest = stream("{\"instrumentIds\":[" + ids + "]}");
+        assertThat(latest).hasSize(INSTRUMENTS);
+        assertThat(latest).allSatisfy(line -> assertThat(line.get("payloadJson").asText()).isEqualTo("{\"v\":2}"));
+
+        List<JsonNode> asOf = stream("{\"instrumentIds\":[" + ids + "],\"asOf\":\"" + BASE.plusSeconds(30) + "\"}");
+        assertThat(asOf).hasSize(INSTRUMENTS);
+        assertThat(asOf).extracting(line -> line.get("instrumentId").asText()).doesNotHaveDuplicates();
+        assertThat(asOf).allSatisfy(line -> assertThat(line.get("payloadJson").asText()).isEqualTo("{\"v\":1}"));
+
+        // Plain JSON clients are unaffected
+        mockMvc.perform(post("/api/prices/last")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.ALL)
+                        .content("{\"instrumentIds\":[\"ND1\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].payloadJson").value("{\"v\":2}"));
+    }
+
+    private List<JsonNode> stream(String body) throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/prices/last")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept("application/x-ndjson")
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(response).endsWith("\n");
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,233 @@
+package com.pricing.pricingengine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test over HTTP; skipped unless run with {@code -Dloadtest=true}.
+ * <p>
+ * {@code producers} threads each own {@code instruments} instruments and push {@code batches} batches of
+ * {@code instruments x ticks} synthetic rows through upload and complete, while {@code consumers} threads
+ * query the full instrument set of a random producer in a loop. Every row of batch k carries k in its
+ * payload, so one response mixing batches of the same producer means a consumer saw a partially
+ * completed batch. Sizes are system properties, e.g.
+ * <pre>
+ * mvn test -Dtest=LoadTest -Dloadtest=true -Dloadtest.instruments=1000 -Dloadtest.ticks=100 -Dloadtest.producers=8
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:load-db;DB_CLOSE_DELAY=-1")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final Instant BASE = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final int instruments = Integer.getInteger("loadtest.instruments", 200);
+    private final int ticks = Integer.getInteger("loadtest.ticks", 50);
+    private final int producers = Integer.getInteger("loadtest.producers", 4);
+    private final int batches = Integer.getInteger("loadtest.batches", 5);
+    private final int consumers = Integer.getInteger("loadtest.consumers", 8);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void producersAndConsumers_shouldNeverExposePartialBatches() throws Exception {
+        RestClient http = RestClient.create("http://localhost:" + port);
+        ExecutorService pool = Executors.newFixedThreadPool(producers + consumers);
+        AtomicBoolean producing = new AtomicBoolean(true);
+        AtomicLong partialViews = new AtomicLong();
+        AtomicLong consumerErrors = new AtomicLong();
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        Timer sharedWait = meterRegistry.get("pricing.lock.wait").tag("mode", "shared").timer();
+        Timer exclusiveWait = meterRegistry.get("pricing.lock.wait").tag("mode", "exclusive").timer();
+        LockWait sharedBefore = LockWait.of(sharedWait);
+        LockWait exclusiveBefore = LockWait.of(exclusiveWait);
+
+        List<Future<?>> consumerRuns = new ArrayList<>();
+        for (int c = 0; c < consumers; c++) {
+            consumerRuns.add(pool.submit(() ->
+                    latencies.add(consume(http, producing, partialViews, consumerErrors))));
+        }
+
+        long start = System.nanoTime();
+        List<Future<?>> producerRuns = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            producerRuns.add(pool.submit(() -> produce(http, producer)));
+        }
+        for (Future<?> run : producerRuns) {
+            run.get();
+        }
+        double ingestSeconds = (System.nanoTime() - start) / 1e9;
+        producing.set(false);
+        for (Future<?> run : consumerRuns) {
+            run.get();
+        }
+        pool.shutdown();
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        long rows = (long) producers * batches * instruments * ticks;
+        LockWait shared = LockWait.of(sharedWait).minus(sharedBefore);
+        LockWait exclusive = LockWait.of(exclusiveWait).minus(exclusiveBefore);
+
+        String report = """
+                        setup         %d producers x %d batches x %d instruments x %d ticks, %d consumers
+                        ingest        %,d rows in %.1f s = %,.0f rows/s
+                        queries       %,d, p50 %.2f ms, p99 %.2f ms, p999 %.2f ms, errors %d
+                        lock wait     shared %d x %.2f ms mean, exclusive %d x %.2f ms mean
+                        partial views %d""".formatted(
+                producers, batches, instruments, ticks, consumers,
+                rows, ingestSeconds, rows / ingestSeconds,
+                all.length, percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), consumerErrors.get(),
+                shared.count(), shared.meanMillis(), exclusive.count(), exclusive.meanMillis(),
+                partialViews.get());
+        log.info("Load test results\n{}", report);
+
+        assertThat(partialViews.get()).isZero();
+        assertThat(consumerErrors.get()).isZero();
+    }
+
+    private void produce(RestClient http, int producer) {
+        for (int k = 0; k < batches; k++) {
+            String batchId = "load-" + producer + "-" + k;
+            MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+            form.add("file", new ByteArrayResource(csv(producer, k)) {
+                @Override
+                public String getFilename() {
+                    return batchId + ".csv";
+                }
+            });
+            http.post().uri("/api/batches/{id}/upload", batchId)
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+                    .body(form)
+                    .retrieve()
+                    .toBodilessEntity();
+            http.post().uri("/api/batches/{id}/complete", batchId)
+                    .retrieve()
+                    .toBodilessEntity();
+        }
+    }
+
+    /**
+     * @return query latencies in nanos
+     */
+    private long[] consume(RestClient http, AtomicBoolean producing, AtomicLong partialViews, AtomicLong errors) {
+        Random random = new Random();
+        long[] samples = new long[1024];
+        int count = 0;
+        while (producing.get()) {
+            int producer = random.nextInt(producers);
+            List<String> ids = new ArrayList<>(instruments);
+            for (int i = 0; i < instruments; i++) {
+                ids.add(instrument(producer, i));
+            }
+            long start = System.nanoTime();
+            List<Map<String, Object>> prices;
+            try {
+                prices = http.post().uri("/api/prices/last")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Map.of("instrumentIds", ids))
+                        .retrieve()
+                        .body(new ParameterizedTypeReference<>() {});
+            } catch (RuntimeException e) {
+                errors.incrementAndGet();
+                continue;
+            }
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = System.nanoTime() - start;
+
+            if (isPartial(prices)) {
+                partialViews.incrementAndGet();
+            }
+        }
+        return Arrays.copyOf(samples, count);
+    }
+
+    /**
+     * A consistent view holds either none of a producer's instruments or all of them, from one batch.
+     */
+    private boolean isPartial(List<Map<String, Object>> prices) {
+        if (prices == null || prices.isEmpty()) {
+            return false;
+        }
+        Set<String> batchesSeen = new HashSet<>();
+        for (Map<String, Object> price : prices) {
+            String payload = (String) price.get("payloadJson");
+            batchesSeen.add(payload.substring(0, payload.indexOf(',')));
+        }
+        return prices.size() != instruments || batchesSeen.size() != 1;
+    }
+
+    private byte[] csv(int producer, int batch) {
+        StringBuilder csv = new StringBuilder(instruments * ticks * 64);
+        for (int t = 0; t < ticks; t++) {
+            Instant asOf = BASE.plusSeconds((long) batch * ticks + t);
+            for (int i = 0; i < instruments; i++) {
+                csv.append(instrument(producer, i)).append(',').append(asOf)
+                        .append(",{\"batch\":").append(batch).append(",\"tick\":").append(t)
+                        .append(",\"price\":").append(100 + (i * 31 + t) % 1000 / 10.0).append("}\n");
+            }
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String instrument(int producer, int i) {
+        return "LT" + producer + "-" + i;
+    }
+
+    private record LockWait(long count, double totalMillis) {
+
+        static LockWait of(Timer timer) {
+            return new LockWait(timer.count(), timer.totalTime(TimeUnit.MILLISECONDS));
+        }
+
+        LockWait minus(LockWait before) {
+            return new LockWait(count - before.count, totalMillis - before.totalMillis);
+        }
+
+        double meanMillis() {
+            return count == 0 ? 0 : totalMillis / count;
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,126 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.domain.Payload;
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.repository.PayloadStore;
+import com.pricing.pricingengine.service.BatchService;
+import com.pricing.pricingengine.service.PriceQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "pricing.payload.mode=compact",
+        "spring.datasource.url=jdbc:h2:mem:payload-db;DB_CLOSE_DELAY=-1"
+})
+class PayloadStoreTest extends BaseIntegrationTest {
+
+    private static final Instant BASE = Instant.parse("2025-10-06T09:00:00Z");
+
+    @Autowired
+    BatchService batchService;
+
+    @Autowired
+    PriceQueryService priceQueryService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PayloadStore payloadStore;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void compactPayloads_shouldBeStoredOnceAndServedVerbatim() throws Exception {
+        String quiet = "{\"bid\":10.5,\"ask\":10.6}";
+        String large = "{\"levels\":[" + "{\"px\":101.25,\"qty\":500,\"venue\":\"XLON\"},".repeat(60)
+                + "{\"px\":101.5,\"qty\":1,\"venue\":\"XLON\"}]}";
+
+        batchService.startBatch("payload-1");
+        batchService.uploadPrices("payload-1", List.of(
+                new PriceRecord("PL-QUIET", BASE, quiet),
+                new PriceRecord("PL-QUIET", BASE.plusSeconds(1), quiet),
+                new PriceRecord("PL-DEEP", BASE, large)));
+        // Same payloads again in another chunk: nothing new stored
+        batchService.uploadPrices("payload-1", List.of(new PriceRecord("PL-QUIET", BASE.plusSeconds(2), quiet)));
+        batchService.completeBatch("payload-1");
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payload WHERE hash IN (HASH('SHA-256', ?), HASH('SHA-256', ?))", Integer.class,
+                quiet.getBytes(StandardCharsets.UTF_8), large.getBytes(StandardCharsets.UTF_8))).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM price_record WHERE batch_id = 'payload-1' AND payload_json IS NULL",
+                Integer.class)).isEqualTo(4);
+        Integer largeStored = jdbcTemplate.queryForObject(
+                "SELECT OCTET_LENGTH(data) FROM payload WHERE hash = HASH('SHA-256', ?) AND encoding = ?",
+                Integer.class, large.getBytes(StandardCharsets.UTF_8), Payload.DEFLATE);
+        assertThat(largeStored).isLessThan(large.length() / 4);
+
+        assertThat(priceQueryService.getLastPrices(Set.of("PL-QUIET", "PL-DEEP")))
+                .extracting(LatestPrice::getPayloadJson)
+                .containsExactlyInAnyOrder(quiet, large);
+        assertThat(priceQueryService.getLastPrices(Set.of("PL-QUIET"), BASE.plusSeconds(1), null))
+                .extracting(p -> p.getAsOf() + "=" + p.getPayloadJson())
+                .containsExactly(BASE.plusSeconds(1) + "=" + quiet);
+
+        mockMvc.perform(post("/api/prices/last")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"instrumentIds\":[\"PL-DEEP\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].payloadJson").value(large));
+    }
+
+    @Test
+    void concurrentUploadsOfTheSamePayloads_shouldShareOneRowEach() {
+        List<PriceRecord> records = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            records.add(new PriceRecord("PL-RACE", BASE.plusSeconds(i), "{\"race\":" + i + "}"));
+        }
+        Integer before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payload", Integer.class);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<List<Long>>> uploads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            List<PriceRecord> shuffled = new ArrayList<>(records);
+            Collections.shuffle(shuffled);
+            uploads.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                long[] ids = payloadStore.idsFor(shuffled);
+                List<Long> byRecord = new ArrayList<>(Collections.nCopies(records.size(), 0L));
+                for (int i = 0; i < ids.length; i++) {
+                    byRecord.set(records.indexOf(shuffled.get(i)), ids[i]);
+                }
+                return byRecord;
+            }));
+        }
+        start.countDown();
+
+        List<Long> first = uploads.get(0).join();
+        assertThat(first).doesNotContain(0L).doesNotHaveDuplicates();
+        uploads.forEach(upload -> assertThat(upload.join()).isEqualTo(first));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payload", Integer.class)).isEqualTo(before + 200);
+    }
+}
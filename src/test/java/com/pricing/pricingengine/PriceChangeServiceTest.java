@@ -0,0 +1,66 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.dto.PriceChangeResponse;
+import com.pricing.pricingengine.dto.PriceChangesResponse;
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.repository.CompletionSequence;
+import com.pricing.pricingengine.service.PriceChangeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceChangeServiceTest extends BaseIntegrationTest {
+
+    private static final Instant BASE = Instant.parse("2025-09-01T12:00:00Z");
+
+    @Autowired
+    PriceChangeService changeService;
+
+    @Autowired
+    CompletionSequence completionSequence;
+
+    @Test
+    void changes_shouldPageThroughPricesCompletedSinceASequence() {
+        long since = completionSequence.committed();
+        complete("changes-1",
+                new PriceRecord("CHG-A", BASE, "{\"p\":1}"),
+                new PriceRecord("CHG-B", BASE, "{\"p\":1}"),
+                new PriceRecord("CHG-C", BASE, "{\"p\":1}"));
+        complete("changes-2",
+                new PriceRecord("CHG-B", BASE.plusSeconds(1), "{\"p\":2}"),
+                new PriceRecord("CHG-D", BASE, "{\"p\":2}"));
+
+        List<PriceChangeResponse> seen = new ArrayList<>();
+        PriceChangesResponse page = changeService.getChanges(since, null, 2);
+        int pages = 1;
+        while (page.nextCursor() != null) {
+            assertThat(page.nextSince()).isNull();
+            seen.addAll(page.prices());
+            page = changeService.getChanges(since, page.nextCursor(), 2);
+            pages++;
+        }
+        seen.addAll(page.prices());
+
+        assertThat(pages).isEqualTo(2);
+        assertThat(seen).extracting(c -> c.instrumentId() + "=" + c.payloadJson())
+                .containsExactly("CHG-A={\"p\":1}", "CHG-C={\"p\":1}", "CHG-B={\"p\":2}", "CHG-D={\"p\":2}");
+        assertThat(seen).extracting(PriceChangeResponse::sequence).isSorted();
+        assertThat(page.nextSince()).isEqualTo(since + 2);
+
+        assertThat(changeService.getChanges(page.nextSince(), null, 100).prices()).isEmpty();
+    }
+
+    @Test
+    void changes_invalidCursorOrLimit_shouldBeRejected() {
+        assertThatThrownBy(() -> changeService.getChanges(0, "nonsense", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> changeService.getChanges(0, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.ingest.PriceCsvReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceCsvReaderTest {
+
+    @Test
+    void parsesFieldsAndKeepsCommasInPayload() throws IOException {
+        List<PriceRecord> records = readAll(
+                " GOOG , 2025-12-15T10:00:00Z ,{\"price\":143.07,\"size\":10}\r\n" +
+                "\n" +
+                "AAPL,2025-12-15T10:00:01.5Z,{\"price\":182.45}");
+
+        assertThat(records).containsExactly(
+                new PriceRecord("GOOG", Instant.parse("2025-12-15T10:00:00Z"), "{\"price\":143.07,\"size\":10}"),
+                new PriceRecord("AAPL", Instant.parse("2025-12-15T10:00:01.5Z"), "{\"price\":182.45}")
+        );
+    }
+
+    @Test
+    void decodesInstantsLikeInstantParse() throws IOException {
+        String[] instants = {
+                "1970-01-01T00:00:00Z", "2024-02-29T23:59:59.999999999Z", "1900-03-01T00:00:00Z",
+                "2100-12-31T12:34:56.123Z", "0001-01-01T00:00:00Z", "2025-12-15T10:00:00+02:00"
+        };
+        StringBuilder csv = new StringBuilder();
+        for (String instant : instants) {
+            csv.append("X,").append(instant).append(",{}\n");
+        }
+
+        List<PriceRecord> records = readAll(csv.toString());
+
+        for (int i = 0; i < instants.length; i++) {
+            assertThat(records.get(i).asOf())
+                    .isEqualTo(java.time.OffsetDateTime.parse(instants[i]).toInstant());
+        }
+    }
+
+    @Test
+    void reusesInstrumentIdStrings() throws IOException {
+        List<PriceRecord> records = readAll("MSFT,2025-12-15T10:00:00Z,{}\nMSFT,2025-12-15T10:00:01Z,{}\n");
+
+        assertThat(records.get(0).instrumentId()).isSameAs(records.get(1).instrumentId());
+    }
+
+    @Test
+    void handlesLinesLargerThanBuffer() throws IOException {
+        String payload = "{\"blob\":\"" + "x".repeat(200_000) + "\"}";
+
+        List<PriceRecord> records = readAll("A,2025-12-15T10:00:00Z," + payload + "\nB,2025-12-15T10:00:00Z,{}\n");
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).payloadJson()).isEqualTo(payload);
+    }
+
+    @Test
+    void malformedLine_reportsLineNumber() {
+        assertThatThrownBy(() -> readAll("A,2025-12-15T10:00:00Z,{}\nB;2025-12-15T10:00:00Z;{}\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 2");
+
+        assertThatThrownBy(() -> readAll("A,2025-12-15T10:00:00Z,{}\n\nC,not-a-time,{}\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("line 3");
+    }
+
+    private static List<PriceRecord> readAll(String csv) throws IOException {
+        List<PriceRecord> records = new ArrayList<>();
+        try (PriceCsvReader reader = new PriceCsvReader(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)))) {
+            while (reader.read(records, 1000) > 0) {
+                // drain
+            }
+        }
+        return records;
+    }
+}
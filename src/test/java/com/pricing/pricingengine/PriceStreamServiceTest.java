@@ -0,0 +1,92 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.service.LatestPriceStore;
+import com.pricing.pricingengine.service.LatestPricesChangedEvent;
+import com.pricing.pricingengine.service.PriceStreamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PriceStreamServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    PriceStreamService streamService;
+
+    @Autowired
+    LatestPriceStore store;
+
+    @Test
+    void stream_shouldSendSnapshotThenChangesOfSubscribedInstruments() throws Exception {
+        Instant base = Instant.parse("2025-12-15T10:00:00Z");
+        complete("stream-1", new PriceRecord("STR-A", base, "{\"p\":1}"));
+
+        MvcResult result = mockMvc.perform(get("/api/prices/stream").param("ids", "STR-A,STR-B"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Event name and data are written separately: wait for the data
+        String snapshot = awaitContent(result, "STR-A");
+        assertThat(snapshot).contains("event:snapshot").doesNotContain("STR-B");
+
+        complete("stream-2",
+                new PriceRecord("STR-B", base, "{\"p\":2}"),
+                new PriceRecord("STR-C", base, "{\"p\":3}"));
+
+        String updates = awaitContent(result, "STR-B").substring(snapshot.length());
+        assertThat(updates).contains("event:prices").doesNotContain("STR-C").doesNotContain("STR-A");
+    }
+
+    @Test
+    void stream_shouldNotRepeatPricesTheSnapshotHolds() throws Exception {
+        Instant base = Instant.parse("2025-12-16T10:00:00Z");
+        complete("stream-3", new PriceRecord("STR-D", base, "{\"p\":1}"));
+
+        MvcResult result = mockMvc.perform(get("/api/prices/stream").param("ids", "STR-D"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(result, "event:snapshot");
+
+        // The change event of a batch the snapshot already took in, arriving late
+        streamService.onLatestPricesChanged(new LatestPricesChangedEvent("stream-3", store.get(List.of("STR-D"))));
+        complete("stream-4", new PriceRecord("STR-D", base.plusSeconds(1), "{\"p\":2}"));
+
+        // Event name and data are written separately: wait for the data
+        String content = awaitContent(result, base.plusSeconds(1).toString());
+        String updates = content.substring(content.indexOf("event:prices"));
+        assertThat(updates.split("event:prices", -1)).hasSize(2);
+        assertThat(updates).contains(base.plusSeconds(1).toString()).doesNotContain(base + "\"");
+    }
+
+    @Test
+    void stream_withoutInstruments_shouldBeRejected() throws Exception {
+        int subscribers = streamService.subscriberCount();
+
+        mockMvc.perform(get("/api/prices/stream").param("ids", ""))
+                .andExpect(status().isBadRequest());
+
+        assertThat(streamService.subscriberCount()).isEqualTo(subscribers);
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+}
@@ -0,0 +1,100 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.service.PriceStreamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * A subscriber that never reads, over a real socket so that writes to it block, next to one that does.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "pricing.stream.dispatch-threads=1",
+        "pricing.stream.send-timeout=300ms",
+        "spring.datasource.url=jdbc:h2:mem:stream-db;DB_CLOSE_DELAY=-1"
+})
+class PriceStreamSlowSubscriberTest extends BaseIntegrationTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    PriceStreamService streamService;
+
+    @Test
+    void subscriberThatStopsReading_shouldBeDroppedWithoutHoldingUpOthers() throws Exception {
+        Instant base = Instant.parse("2025-12-17T10:00:00Z");
+        String padded = "{\"pad\":\"" + "x".repeat(100_000) + "\"}";
+        List<PriceRecord> large = IntStream.range(0, 100)
+                .mapToObj(i -> new PriceRecord("SLOW-" + i, base, padded))
+                .toList();
+        complete("slow-2", new PriceRecord("FAST-A", base, "{\"p\":1}"));
+
+        try (Socket stalled = new Socket()) {
+            stalled.setReceiveBufferSize(4096);
+            stalled.connect(new InetSocketAddress("localhost", port));
+            String ids = large.stream().map(PriceRecord::instrumentId).collect(Collectors.joining(","));
+            OutputStream out = stalled.getOutputStream();
+            out.write(("GET /api/prices/stream?ids=" + ids + " HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            // Reads the (empty) snapshot, so the stream is set up, then never reads again
+            awaitData(stalled);
+            assertThat(streamService.subscriberCount()).isEqualTo(1);
+            // A 10 MB event: its write blocks on the only dispatcher thread once the socket buffers are full
+            complete("slow-1", large);
+
+            MvcResult result = mockMvc.perform(get("/api/prices/stream").param("ids", "FAST-A"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            awaitContent(result, "FAST-A");
+            assertThat(streamService.subscriberCount()).isEqualTo(1);
+        }
+    }
+
+    private static void awaitData(Socket socket) throws IOException {
+        socket.setSoTimeout(5_000);
+        InputStream in = socket.getInputStream();
+        StringBuilder received = new StringBuilder();
+        while (received.indexOf("data:") < 0) {
+            int b = in.read();
+            assertThat(b).isNotNegative();
+            received.append((char) b);
+        }
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+    }
+}
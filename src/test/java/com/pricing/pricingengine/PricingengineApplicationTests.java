@@ -2,8 +2,10 @@ package com.pricing.pricingengine;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
 
 @SpringBootTest
+@TestPropertySource(properties = "pricing.snapshot.enabled=false")
 class PricingengineApplicationTests {
 
 	@Test
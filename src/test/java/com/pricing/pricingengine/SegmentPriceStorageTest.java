@@ -0,0 +1,179 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.dto.PriceRecord;
+import com.pricing.pricingengine.repository.InstrumentDictionary;
+import com.pricing.pricingengine.service.BatchPurger;
+import com.pricing.pricingengine.service.BatchService;
+import com.pricing.pricingengine.service.PriceQueryService;
+import com.pricing.pricingengine.storage.SegmentPriceStorage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {
+        "pricing.storage.mode=segment",
+        "pricing.segment.dir=target/test-segments",
+        "pricing.segment.region-size=4KB",
+        "pricing.segment.open-files=1", // every lookup across batches reopens files
+        "spring.datasource.url=jdbc:h2:mem:segment-db;DB_CLOSE_DELAY=-1"
+})
+class SegmentPriceStorageTest extends BaseIntegrationTest {
+
+    @Autowired
+    BatchService batchService;
+
+    @Autowired
+    PriceQueryService priceQueryService;
+
+    @Autowired
+    BatchPurger batchPurger;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    InstrumentDictionary instrumentDictionary;
+
+    @Test
+    void segmentBatches_shouldServeLatestAndPointInTimePrices() {
+        Instant base = Instant.parse("2025-01-10T10:00:00Z");
+
+        batchService.startBatch("seg-1");
+        // Several chunks spanning more than one mapped region, asOf out of order across chunks
+        List<PriceRecord> bulk = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            bulk.add(new PriceRecord("SEG-BULK" + (i % 10), base.plusSeconds(i), "{\"i\":" + i + "}"));
+        }
+        batchService.uploadPrices("seg-1", bulk);
+        batchService.uploadPrices("seg-1", List.of(new PriceRecord("SEG-X", base.plusSeconds(7200), "{\"p\":3}")));
+        batchService.uploadPrices("seg-1", List.of(new PriceRecord("SEG-X", base, "{\"p\":1}")));
+        batchService.completeBatch("seg-1");
+
+        Instant afterFirst = Instant.now();
+        long afterFirstSeq = priceQueryService.readableCompletionSeq();
+
+        batchService.startBatch("seg-2");
+        batchService.uploadPrices("seg-2", List.of(
+                new PriceRecord("SEG-X", base.plusSeconds(3600), "{\"p\":2}"),
+                new PriceRecord("SEG-Y", base.plusSeconds(3600), "{\"p\":2}")));
+        batchService.completeBatch("seg-2");
+
+        // Open batch: never visible
+        batchService.startBatch("seg-3");
+        batchService.uploadPrices("seg-3", List.of(new PriceRecord("SEG-X", base.plusSeconds(5400), "{}")));
+
+        assertThat(priceQueryService.getLastPrices(Set.of("SEG-X", "SEG-BULK7")))
+                .extracting(p -> p.getInstrumentId() + "@" + p.getBatchId() + "=" + p.getPayloadJson())
+                .containsExactlyInAnyOrder("SEG-X@seg-1={\"p\":3}", "SEG-BULK7@seg-1={\"i\":297}");
+
+        Set<String> ids = Set.of("SEG-X", "SEG-Y");
+        Instant cutoff = base.plusSeconds(6300);
+        assertThat(priceQueryService.getLastPrices(ids, cutoff, null))
+                .extracting(p -> p.getInstrumentId() + "@" + p.getBatchId() + "=" + p.getPayloadJson())
+                .containsExactlyInAnyOrder("SEG-X@seg-2={\"p\":2}", "SEG-Y@seg-2={\"p\":2}");
+        assertThat(priceQueryService.getLastPrices(ids, cutoff, afterFirst))
+                .extracting(p -> p.getInstrumentId() + "@" + p.getAsOf())
+                .containsExactly("SEG-X@" + base);
+        assertThat(priceQueryService.readableCompletionSeq()).isEqualTo(afterFirstSeq + 1);
+        assertThat(priceQueryService.getLastPrices(ids, cutoff, null, afterFirstSeq))
+                .extracting(p -> p.getInstrumentId() + "@" + p.getAsOf())
+                .containsExactly("SEG-X@" + base);
+        assertThat(priceQueryService.getLastPrices(Set.of("SEG-BULK3"), base.plusSeconds(100), null))
+                .extracting(LatestPrice::getPayloadJson)
+                .containsExactly("{\"i\":93}");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM price_record", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT SUM(row_count) FROM segment_frame WHERE batch_id = 'seg-1'", Integer.class)).isEqualTo(302);
+    }
+
+    @Test
+    void cancelledSegmentBatch_shouldBeDroppedWithItsFiles() throws Exception {
+        String batchId = "seg-cancel";
+        batchService.startBatch(batchId);
+        batchService.uploadPrices(batchId, List.of(
+                new PriceRecord("SEG-C1", Instant.now(), "{}"),
+                new PriceRecord("SEG-C2", Instant.now(), "{}")));
+        batchService.uploadPrices(batchId, List.of(new PriceRecord("SEG-C1", Instant.now(), "{}")));
+        assertThat(segmentFiles(batchId)).isNotEmpty();
+
+        batchService.cancelBatch(batchId);
+
+        for (int i = 0; i < 200 && !"PURGED".equals(batchPurger.status(batchId).orElseThrow().state()); i++) {
+            Thread.sleep(50);
+        }
+        var status = batchPurger.status(batchId).orElseThrow();
+        assertThat(status.state()).isEqualTo("PURGED");
+        assertThat(status.rowsDeleted()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM segment_frame WHERE batch_id = ?", Integer.class, batchId)).isZero();
+        assertThat(segmentFiles(batchId)).isEmpty();
+    }
+
+    @Test
+    void restartedStore_shouldReloadSegmentsFromValidAndCorruptManifests() throws Exception {
+        Instant asOf = Instant.parse("2025-01-12T10:00:00Z");
+        batchService.startBatch("seg-tie-a");
+        batchService.startBatch("seg-tie-b");
+        batchService.uploadPrices("seg-tie-a", List.of(new PriceRecord("SEG-T", asOf, "{\"p\":\"a\"}")));
+        batchService.uploadPrices("seg-tie-b", List.of(new PriceRecord("SEG-T", asOf, "{\"p\":\"b\"}")));
+        batchService.completeBatch("seg-tie-a");
+        batchService.completeBatch("seg-tie-b");
+        // Clock skew between nodes: the later completion carries the earlier timestamp
+        jdbcTemplate.update("UPDATE price_batch SET completed_at = completed_at - INTERVAL '1' HOUR WHERE id = 'seg-tie-b'");
+
+        assertThat(lastPriceAfterRestart("SEG-T", asOf)).isEqualTo("seg-tie-b={\"p\":\"b\"}");
+
+        Path manifest = segmentFiles("seg-tie-b").stream()
+                .filter(f -> f.getFileName().toString().endsWith(".idx"))
+                .findFirst().orElseThrow();
+        Files.writeString(manifest, "not a manifest");
+
+        assertThat(lastPriceAfterRestart("SEG-T", asOf)).isEqualTo("seg-tie-b={\"p\":\"b\"}");
+        assertThat(Files.readString(manifest, StandardCharsets.ISO_8859_1)).isNotEqualTo("not a manifest");
+    }
+
+    /**
+     * The answer of a store started afresh over the same directory, as after a restart.
+     */
+    private String lastPriceAfterRestart(String instrumentId, Instant asOf) {
+        SegmentPriceStorage restarted = new SegmentPriceStorage(jdbcTemplate, instrumentDictionary,
+                Path.of("target/test-segments"), DataSize.ofKilobytes(4), 5000, 1);
+        ReflectionTestUtils.invokeMethod(restarted, "load");
+        try {
+            return restarted.findLastPricesAt(Set.of(instrumentId), asOf, null, null).stream()
+                    .map(p -> p.getBatchId() + "=" + p.getPayloadJson())
+                    .findFirst().orElseThrow();
+        } finally {
+            ReflectionTestUtils.invokeMethod(restarted, "close");
+        }
+    }
+
+    /**
+     * Files of a batch; names are the URL-safe Base64 of the batch id.
+     */
+    private static List<Path> segmentFiles(String batchId) throws IOException {
+        String prefix = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(batchId.getBytes(StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(Path.of("target/test-segments"))) {
+            return files.filter(f -> f.getFileName().toString().startsWith(prefix + ".")).toList();
+        }
+    }
+}
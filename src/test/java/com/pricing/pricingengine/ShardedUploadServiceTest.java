@@ -0,0 +1,120 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.service.BatchService;
+import com.pricing.pricingengine.service.PriceQueryService;
+import com.pricing.pricingengine.service.ShardedUploadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedUploadServiceTest extends BaseIntegrationTest {
+
+    private static final Instant BASE = Instant.parse("2025-10-01T08:00:00Z");
+
+    @Autowired
+    ShardedUploadService shardedUploadService;
+
+    @Autowired
+    BatchService batchService;
+
+    @Autowired
+    PriceQueryService priceQueryService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void upload_plainAndGzipShards_shouldLandInOneBatch() throws Exception {
+        String batchId = "batch-shards";
+        // Two gzip members back to back, as written by parallel compressors
+        byte[] concatenated = concat(gzip(csv("SHD-B", 0, 1500)), gzip(csv("SHD-B", 1500, 1500)));
+        batchService.startBatch(batchId);
+
+        long rows = shardedUploadService.upload(batchId, List.of(
+                file("a.csv", csv("SHD-A", 0, 2500).getBytes(StandardCharsets.UTF_8)),
+                file("b.csv.gz", concatenated),
+                file("c.gz", gzip(csv("SHD-C", 0, 10)))));
+
+        assertThat(rows).isEqualTo(2500 + 3000 + 10);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM price_record WHERE batch_id = ?", Long.class, batchId)).isEqualTo(rows);
+
+        batchService.completeBatch(batchId);
+        assertThat(priceQueryService.getLastPrices(Set.of("SHD-A", "SHD-B", "SHD-C")))
+                .extracting(p -> p.getInstrumentId() + "@" + p.getAsOf())
+                .containsExactlyInAnyOrder(
+                        "SHD-A@" + BASE.plusSeconds(2499),
+                        "SHD-B@" + BASE.plusSeconds(2999),
+                        "SHD-C@" + BASE.plusSeconds(9));
+    }
+
+    @Test
+    void upload_malformedZstdOrCorruptShard_shouldBeRejectedNamingTheShard() throws Exception {
+        String batchId = "batch-shards-bad";
+        batchService.startBatch(batchId);
+        MockMultipartFile good = file("good.csv", csv("SHD-D", 0, 5).getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> shardedUploadService.upload(batchId, List.of(good,
+                file("bad.csv.gz", gzip("SHD-E,2025-10-01T08:00:00Z,{}\nSHD-E;oops\n")))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("bad.csv.gz")
+                .hasMessageContaining("line 2");
+
+        byte[] zstd = {0x28, (byte) 0xb5, 0x2f, (byte) 0xfd, 0, 0, 0};
+        assertThatThrownBy(() -> shardedUploadService.upload(batchId, List.of(good, file("f.zst", zstd))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("zstd");
+
+        // A bad trailer checksum, and a stream cut short
+        byte[] corrupt = gzip(csv("SHD-F", 0, 5));
+        corrupt[corrupt.length - 8] ^= 0x55;
+        assertThatThrownBy(() -> shardedUploadService.upload(batchId, List.of(good, file("corrupt.gz", corrupt))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("corrupt.gz")
+                .hasMessageContaining("Corrupt gzip");
+        byte[] truncated = Arrays.copyOf(gzip(csv("SHD-F", 0, 5)), 20);
+        assertThatThrownBy(() -> shardedUploadService.upload(batchId, List.of(file("truncated.gz", truncated))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Corrupt gzip");
+    }
+
+    private static String csv(String instrument, int from, int rows) {
+        StringBuilder csv = new StringBuilder();
+        for (int i = from; i < from + rows; i++) {
+            csv.append(instrument).append(',').append(BASE.plusSeconds(i)).append(",{\"i\":").append(i).append("}\n");
+        }
+        return csv.toString();
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] both = new byte[a.length + b.length];
+        System.arraycopy(a, 0, both, 0, a.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        return both;
+    }
+
+    private static MockMultipartFile file(String name, byte[] content) {
+        return new MockMultipartFile("file", name, "application/octet-stream", content);
+    }
+}
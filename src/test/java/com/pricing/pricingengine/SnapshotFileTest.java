@@ -0,0 +1,61 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.domain.LatestPrice;
+import com.pricing.pricingengine.service.SnapshotFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsPricesAndLastBatch() throws IOException {
+        SnapshotFile file = new SnapshotFile(dir.resolve("prices.snap"), true);
+        List<LatestPrice> prices = List.of(
+                new LatestPrice("GOOG", Instant.parse("2025-12-15T10:00:00.123456789Z"), "{\"price\":143.07}", "b1"),
+                new LatestPrice("ÄPFEL", Instant.parse("1969-07-20T20:17:40Z"), "{\"note\":\"ünïcode\"}", "b2"),
+                new LatestPrice("MSFT", Instant.parse("2025-12-15T10:00:01Z"), "{}", "b1"));
+
+        assertThat(file.write(prices, "b2")).isEqualTo(3);
+        SnapshotFile.Contents contents = file.read().orElseThrow();
+
+        assertThat(contents.lastBatchId()).isEqualTo("b2");
+        assertThat(contents.prices())
+                .extracting(p -> p.getInstrumentId() + "|" + p.getAsOf() + "|" + p.getPayloadJson() + "|" + p.getBatchId())
+                .containsExactly(
+                        "GOOG|2025-12-15T10:00:00.123456789Z|{\"price\":143.07}|b1",
+                        "ÄPFEL|1969-07-20T20:17:40Z|{\"note\":\"ünïcode\"}|b2",
+                        "MSFT|2025-12-15T10:00:01Z|{}|b1");
+    }
+
+    @Test
+    void corruptedOrTruncatedFile_isIgnored() throws IOException {
+        Path path = dir.resolve("prices.snap");
+        SnapshotFile file = new SnapshotFile(path, true);
+        file.write(List.of(new LatestPrice("GOOG", Instant.now(), "{\"price\":1}", "b1")), "b1");
+
+        try (RandomAccessFile raw = new RandomAccessFile(path.toFile(), "rw")) {
+            raw.seek(raw.length() - 3);
+            raw.write('X');
+        }
+        assertThat(file.read()).isEmpty();
+
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+        assertThat(file.read()).isEmpty();
+
+        assertThat(new SnapshotFile(dir.resolve("missing.snap"), true).read()).isEmpty();
+    }
+}
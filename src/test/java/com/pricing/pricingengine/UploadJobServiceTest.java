@@ -0,0 +1,85 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.dto.UploadJobStatus;
+import com.pricing.pricingengine.ingest.UploadJob;
+import com.pricing.pricingengine.service.BatchService;
+import com.pricing.pricingengine.service.PriceQueryService;
+import com.pricing.pricingengine.service.UploadJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadJobServiceTest extends BaseIntegrationTest {
+
+    @Autowired
+    UploadJobService uploadJobService;
+
+    @Autowired
+    BatchService batchService;
+
+    @Autowired
+    PriceQueryService priceQueryService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void asyncUpload_shouldPersistAllChunks() throws Exception {
+        String batchId = "batch-async";
+        Instant base = Instant.parse("2025-12-15T10:00:00Z");
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            csv.append("ASYNC").append(i % 10).append(',').append(base.plusSeconds(i)).append(",{}\n");
+        }
+        batchService.startBatch(batchId);
+
+        UploadJob job = uploadJobService.submit(batchId, csvFile(csv.toString()));
+        UploadJobStatus status = await(batchId, job.jobId());
+
+        assertThat(status.state()).isEqualTo("SUCCEEDED");
+        assertThat(status.rowsPersisted()).isEqualTo(2500);
+        assertThat(status.chunksPersisted()).isEqualTo(3);
+
+        batchService.completeBatch(batchId);
+        assertThat(priceQueryService.getLastPrices(Set.of("ASYNC0", "ASYNC9"))).hasSize(2);
+    }
+
+    @Test
+    void asyncUpload_malformedRow_shouldFailJobWithLineNumber() throws Exception {
+        String batchId = "batch-async-malformed";
+        batchService.startBatch(batchId);
+
+        // Good chunks queued ahead of the bad line are still written, but before the job reports FAILED
+        String good = "BAD,2025-12-15T10:00:00Z,{}\n".repeat(5000);
+        UploadJob job = uploadJobService.submit(batchId, csvFile(good + "BAD;oops\n"));
+        UploadJobStatus status = await(batchId, job.jobId());
+
+        assertThat(status.state()).isEqualTo("FAILED");
+        assertThat(status.failure()).contains("line 5001");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM price_record WHERE batch_id = ?", Long.class, batchId))
+                .isEqualTo(status.rowsPersisted());
+    }
+
+    private static MockMultipartFile csvFile(String csv) {
+        return new MockMultipartFile("file", "prices.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private UploadJobStatus await(String batchId, String jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            UploadJobStatus status = uploadJobService.find(batchId, jobId).orElseThrow().status();
+            if (status.finishedAt() != null) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Upload job " + jobId + " did not finish");
+    }
+}
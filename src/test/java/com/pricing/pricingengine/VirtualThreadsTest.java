@@ -0,0 +1,82 @@
+package com.pricing.pricingengine;
+
+import com.pricing.pricingengine.dto.UploadJobStatus;
+import com.pricing.pricingengine.ingest.UploadJob;
+import com.pricing.pricingengine.service.BatchService;
+import com.pricing.pricingengine.service.ShardedUploadService;
+import com.pricing.pricingengine.service.UploadJobService;
+import com.pricing.pricingengine.service.WorkerThreads;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@TestPropertySource(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:virtual-db;DB_CLOSE_DELAY=-1"
+})
+class VirtualThreadsTest extends BaseIntegrationTest {
+
+    @MockitoSpyBean
+    BatchService batchService;
+
+    @Autowired
+    ShardedUploadService shardedUploadService;
+
+    @Autowired
+    UploadJobService uploadJobService;
+
+    @Autowired
+    WorkerThreads workerThreads;
+
+    @Test
+    void uploads_shouldRunOnVirtualThreads() throws Exception {
+        Queue<Thread> writers = new ConcurrentLinkedQueue<>();
+        doAnswer(invocation -> {
+            writers.add(Thread.currentThread());
+            return invocation.callRealMethod();
+        }).when(batchService).uploadPrices(anyString(), any());
+
+        assertThat(workerThreads.isVirtual()).isTrue();
+        batchService.startBatch("virtual-1");
+
+        // Several files: shards are parsed and persisted on the shard pool
+        shardedUploadService.upload("virtual-1", List.of(csvFile("VT-A"), csvFile("VT-B")));
+
+        UploadJob job = uploadJobService.submit("virtual-1", csvFile("VT-C"));
+        assertThat(await(job).state()).isEqualTo("SUCCEEDED");
+
+        assertThat(writers).hasSize(3)
+                .allSatisfy(thread -> assertThat(thread.isVirtual()).isTrue())
+                .extracting(Thread::getName)
+                .anySatisfy(name -> assertThat(name).startsWith("upload-shard-"))
+                .anySatisfy(name -> assertThat(name).startsWith("upload-persist-"));
+    }
+
+    private static MockMultipartFile csvFile(String instrumentId) {
+        String csv = instrumentId + ",2025-12-15T10:00:00Z,{}\n";
+        return new MockMultipartFile("file", instrumentId + ".csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private UploadJobStatus await(UploadJob job) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            UploadJobStatus status = job.status();
+            if (status.finishedAt() != null) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Upload job " + job.jobId() + " did not finish");
+    }
+}